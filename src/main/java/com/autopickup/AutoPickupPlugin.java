@@ -3,15 +3,41 @@ package com.autopickup;
 import com.autopickup.commands.AutoPickupCommand;
 import com.autopickup.items.OreConverterItem;
 import com.autopickup.listeners.BlockBreakListener;
+import com.autopickup.listeners.ExplosionListener;
 import com.autopickup.listeners.InventoryClickListener;
 import com.autopickup.listeners.InventoryConversionListener;
+import com.autopickup.listeners.LootListener;
 import com.autopickup.listeners.PlayerQuitListener;
+import com.autopickup.listeners.PlayerSessionListener;
+import com.autopickup.listeners.ServerTickListener;
+import com.autopickup.managers.ActionBarManager;
 import com.autopickup.managers.ConverterManager;
+import com.autopickup.managers.EvictionManager;
+import com.autopickup.managers.ExperienceManager;
+import com.autopickup.managers.LoadManager;
+import com.autopickup.managers.MagnetManager;
+import com.autopickup.managers.PickupPipeline;
 import com.autopickup.managers.PlayerDataManager;
+import com.autopickup.managers.RegionManager;
+import com.autopickup.managers.SessionManager;
 import com.autopickup.managers.SmeltingManager;
+import com.autopickup.managers.VaultManager;
+import com.autopickup.managers.VeinMinerManager;
+import com.autopickup.tasks.AccumulatorSaveTask;
+import com.autopickup.tasks.ActionBarTask;
 import com.autopickup.tasks.AutoConversionTask;
+import com.autopickup.tasks.ExperienceTask;
+import com.autopickup.tasks.MagnetTask;
+import com.autopickup.tasks.PickupDrainTask;
+import com.autopickup.tasks.PlayerDataSaveTask;
+import com.autopickup.tasks.VeinMinerTask;
+import com.autopickup.utils.ConfigUtils;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 public class AutoPickupPlugin extends JavaPlugin {
 
     private static AutoPickupPlugin instance;
@@ -19,7 +45,25 @@ public class AutoPickupPlugin extends JavaPlugin {
     private SmeltingManager smeltingManager;
     private ConverterManager converterManager;
     private OreConverterItem oreConverterItem;
+    private SessionManager sessionManager;
+    private ActionBarManager actionBarManager;
+    private ExperienceManager experienceManager;
+    private PickupPipeline pickupPipeline;
+    private LoadManager loadManager;
+    private VeinMinerManager veinMinerManager;
+    private MagnetManager magnetManager;
+    private RegionManager regionManager;
+    private EvictionManager evictionManager;
+    private VaultManager vaultManager;
     private AutoConversionTask autoConversionTask;
+    private AccumulatorSaveTask accumulatorSaveTask;
+    private PlayerDataSaveTask playerDataSaveTask;
+    private ActionBarTask actionBarTask;
+    private ExperienceTask experienceTask;
+    private PickupDrainTask pickupDrainTask;
+    private VeinMinerTask veinMinerTask;
+    private MagnetTask magnetTask;
+    private ExecutorService ioExecutor;
 
     @Override
     public void onEnable() {
@@ -27,40 +71,129 @@ public class AutoPickupPlugin extends JavaPlugin {
 
         // Save default config
         saveDefaultConfig();
+        ConfigUtils.loadMessages(getConfig());
+
+        // Single background thread for all file IO, so writes keep their order
+        ioExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "AutoPickup-IO"));
 
         // Initialize managers
+        loadManager = new LoadManager(this);
         playerDataManager = new PlayerDataManager(this);
         smeltingManager = new SmeltingManager(this);
         converterManager = new ConverterManager(this);
         oreConverterItem = new OreConverterItem(this);
+        sessionManager = new SessionManager(this);
+        actionBarManager = new ActionBarManager(this);
+        experienceManager = new ExperienceManager(this);
+        pickupPipeline = new PickupPipeline(this);
+        veinMinerManager = new VeinMinerManager(this);
+        magnetManager = new MagnetManager(this);
+        regionManager = new RegionManager(this);
+        evictionManager = new EvictionManager(this);
+        vaultManager = new VaultManager(this);
 
         // Register listeners
         getServer().getPluginManager().registerEvents(new BlockBreakListener(this), this);
+        getServer().getPluginManager().registerEvents(new ExplosionListener(this), this);
+        getServer().getPluginManager().registerEvents(new LootListener(this), this);
         getServer().getPluginManager().registerEvents(new InventoryClickListener(this), this);
         getServer().getPluginManager().registerEvents(new PlayerQuitListener(this), this);
         getServer().getPluginManager().registerEvents(new InventoryConversionListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerSessionListener(this), this);
+        getServer().getPluginManager().registerEvents(new ServerTickListener(this), this);
+
+        // Create sessions for players already online (plugin reload)
+        sessionManager.createOnlineSessions();
 
         // Register commands
         AutoPickupCommand commandExecutor = new AutoPickupCommand(this);
         getCommand("autopickup").setExecutor(commandExecutor);
         getCommand("autopickup").setTabCompleter(commandExecutor);
 
-        // Start periodic auto-conversion task
+        // Start periodic tasks
         startAutoConversionTask();
+        startAccumulatorSaveTask();
+        startPlayerDataSaveTask();
+        startActionBarTask();
+        startExperienceTask();
+        startPickupDrainTask();
+        startVeinMinerTask();
+        startMagnetTask();
 
         getLogger().info("AutoPickup has been enabled!");
     }
 
     @Override
     public void onDisable() {
-        // Cancel periodic task
+        // Cancel periodic tasks
         if (autoConversionTask != null) {
             autoConversionTask.cancel();
         }
+        if (accumulatorSaveTask != null) {
+            accumulatorSaveTask.cancel();
+        }
+        if (playerDataSaveTask != null) {
+            playerDataSaveTask.cancel();
+        }
+        if (actionBarTask != null) {
+            actionBarTask.cancel();
+        }
+        if (experienceTask != null) {
+            experienceTask.cancel();
+        }
+        if (pickupDrainTask != null) {
+            pickupDrainTask.cancel();
+        }
+        if (veinMinerTask != null) {
+            veinMinerTask.cancel();
+        }
+        if (magnetTask != null) {
+            magnetTask.cancel();
+        }
+
+        // Veins in progress end here, their drops join the deferred ones
+        if (veinMinerManager != null) {
+            veinMinerManager.cancelAll();
+        }
+
+        // Deliver deferred drops before accumulators are saved
+        if (pickupPipeline != null) {
+            pickupPipeline.flushAll();
+        }
+
+        // Hand out experience that is still waiting for delivery
+        if (experienceManager != null) {
+            experienceManager.flush();
+        }
+
+        // Queue the final accumulator writes
+        if (converterManager != null && sessionManager != null) {
+            converterManager.saveAllAccumulators();
+        }
+        if (vaultManager != null && sessionManager != null) {
+            vaultManager.saveAll();
+        }
 
         // Save player data
         if (playerDataManager != null) {
             playerDataManager.saveAllData();
+            playerDataManager.shutdown();
+        }
+
+        if (sessionManager != null) {
+            sessionManager.clear();
+        }
+
+        // Wait for queued writes to reach the disk
+        if (ioExecutor != null) {
+            ioExecutor.shutdown();
+            try {
+                if (!ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    getLogger().severe("Timed out waiting for pending writes to finish!");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
         getLogger().info("AutoPickup has been disabled!");
@@ -82,6 +215,83 @@ public class AutoPickupPlugin extends JavaPlugin {
         }
     }
 
+    /**
+     * Start or restart the accumulator save task with current config settings.
+     */
+    private void startAccumulatorSaveTask() {
+        if (accumulatorSaveTask != null) {
+            accumulatorSaveTask.cancel();
+        }
+        accumulatorSaveTask = new AccumulatorSaveTask(this);
+        accumulatorSaveTask.start();
+    }
+
+    /**
+     * Start or restart the player data save task with current config settings.
+     */
+    private void startPlayerDataSaveTask() {
+        if (playerDataSaveTask != null) {
+            playerDataSaveTask.cancel();
+        }
+        playerDataSaveTask = new PlayerDataSaveTask(this);
+        playerDataSaveTask.start();
+    }
+
+    /**
+     * Start or restart the action bar task.
+     */
+    private void startActionBarTask() {
+        if (actionBarTask != null) {
+            actionBarTask.cancel();
+        }
+        actionBarTask = new ActionBarTask(this);
+        actionBarTask.start();
+    }
+
+    /**
+     * Start or restart the experience delivery task with current config settings.
+     */
+    private void startExperienceTask() {
+        if (experienceTask != null) {
+            experienceTask.cancel();
+        }
+        experienceTask = new ExperienceTask(this);
+        experienceTask.start();
+    }
+
+    /**
+     * Start or restart the task that drains deferred drops.
+     */
+    private void startPickupDrainTask() {
+        if (pickupDrainTask != null) {
+            pickupDrainTask.cancel();
+        }
+        pickupDrainTask = new PickupDrainTask(this);
+        pickupDrainTask.start();
+    }
+
+    /**
+     * Start or restart the vein miner task.
+     */
+    private void startVeinMinerTask() {
+        if (veinMinerTask != null) {
+            veinMinerTask.cancel();
+        }
+        veinMinerTask = new VeinMinerTask(this);
+        veinMinerTask.start();
+    }
+
+    /**
+     * Start or restart the magnet task.
+     */
+    private void startMagnetTask() {
+        if (magnetTask != null) {
+            magnetTask.cancel();
+        }
+        magnetTask = new MagnetTask(this);
+        magnetTask.start();
+    }
+
     public static AutoPickupPlugin getInstance() {
         return instance;
     }
@@ -102,13 +312,74 @@ public class AutoPickupPlugin extends JavaPlugin {
         return oreConverterItem;
     }
 
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    public ActionBarManager getActionBarManager() {
+        return actionBarManager;
+    }
+
+    public ExperienceManager getExperienceManager() {
+        return experienceManager;
+    }
+
+    public PickupPipeline getPickupPipeline() {
+        return pickupPipeline;
+    }
+
+    public LoadManager getLoadManager() {
+        return loadManager;
+    }
+
+    public VeinMinerManager getVeinMinerManager() {
+        return veinMinerManager;
+    }
+
+    public MagnetManager getMagnetManager() {
+        return magnetManager;
+    }
+
+    public RegionManager getRegionManager() {
+        return regionManager;
+    }
+
+    public EvictionManager getEvictionManager() {
+        return evictionManager;
+    }
+
+    public VaultManager getVaultManager() {
+        return vaultManager;
+    }
+
+    /**
+     * Executor for background file IO. Tasks run one at a time in submission order.
+     */
+    public ExecutorService getIoExecutor() {
+        return ioExecutor;
+    }
+
     public void reloadPlugin() {
         reloadConfig();
+        ConfigUtils.loadMessages(getConfig());
+        loadManager.loadConfig();
         smeltingManager.loadConfig();
         converterManager.loadConfig();
+        actionBarManager.loadConfig();
+        experienceManager.loadConfig();
+        pickupPipeline.loadConfig();
+        veinMinerManager.loadConfig();
+        magnetManager.loadConfig();
+        regionManager.loadConfig();
+        evictionManager.loadConfig();
+        vaultManager.loadConfig();
         playerDataManager.reloadData();
+        sessionManager.refreshAll();
         
-        // Restart auto-conversion task with new interval
+        // Restart periodic tasks with new intervals
         startAutoConversionTask();
+        startAccumulatorSaveTask();
+        startPlayerDataSaveTask();
+        startExperienceTask();
     }
 }
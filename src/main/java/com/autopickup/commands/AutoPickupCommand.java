@@ -3,7 +3,19 @@ package com.autopickup.commands;
 import com.autopickup.AutoPickupPlugin;
 import com.autopickup.gui.AdminConfigGUI;
 import com.autopickup.gui.PlayerToggleGUI;
+import com.autopickup.gui.VaultGUI;
+import com.autopickup.managers.ActionBarManager;
+import com.autopickup.managers.LoadManager;
+import com.autopickup.managers.LoadTier;
+import com.autopickup.managers.MagnetManager;
+import com.autopickup.managers.PickupPipeline;
+import com.autopickup.managers.PlayerDataManager;
+import com.autopickup.managers.RegionManager;
+import com.autopickup.managers.VaultManager;
+import com.autopickup.managers.VeinMinerManager;
 import com.autopickup.utils.ConfigUtils;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -12,8 +24,10 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -49,6 +63,13 @@ public class AutoPickupCommand implements CommandExecutor, TabCompleter {
         String subCommand = args[0].toLowerCase();
 
         switch (subCommand) {
+            case "vault" -> {
+                if (!player.hasPermission("autopickup.vault") || !plugin.getVaultManager().isEnabled()) {
+                    player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), "no-permission"));
+                    return true;
+                }
+                new VaultGUI(plugin).openGUI(player, 0);
+            }
             case "admin" -> {
                 if (!player.hasPermission("autopickup.admin")) {
                     player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), "no-permission"));
@@ -91,20 +112,107 @@ public class AutoPickupCommand implements CommandExecutor, TabCompleter {
                 plugin.reloadPlugin();
                 player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), "config-reloaded"));
             }
+            case "stats" -> {
+                if (!player.hasPermission("autopickup.admin")) {
+                    player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), "no-permission"));
+                    return true;
+                }
+
+                sendStats(player);
+            }
+            case "load" -> {
+                if (!player.hasPermission("autopickup.admin")) {
+                    player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), "no-permission"));
+                    return true;
+                }
+
+                sendLoad(player);
+            }
             default -> player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), "usage"));
         }
 
         return true;
     }
 
+    /**
+     * Show internal counters to an admin.
+     */
+    private void sendStats(Player player) {
+        PlayerDataManager pdm = plugin.getPlayerDataManager();
+
+        player.sendMessage(Component.text("AutoPickup statistics:", NamedTextColor.GOLD));
+        player.sendMessage(statLine("Player data storage", pdm.getStorageName()));
+        player.sendMessage(statLine("Player data entries in memory", String.valueOf(pdm.getResidentCount())));
+        player.sendMessage(statLine("Player data pending writes", String.valueOf(pdm.getPendingWrites())));
+        player.sendMessage(statLine("Player data flushes", String.valueOf(pdm.getFlushCount())));
+        player.sendMessage(statLine("Player data flush latency",
+                String.format("last %.2f ms, avg %.2f ms", pdm.getLastFlushMillis(), pdm.getAverageFlushMillis())));
+
+        ActionBarManager abm = plugin.getActionBarManager();
+        player.sendMessage(statLine("Converter action bars", abm.getSentCount() + " sent, " + abm.getSuppressedCount() + " suppressed"));
+
+        PickupPipeline pipeline = plugin.getPickupPipeline();
+        player.sendMessage(statLine("Pickups deferred",
+                pipeline.getDeferredBatches() + " blocks, " + pipeline.getDeferredItems() + " items"));
+        player.sendMessage(statLine("Pickups drained",
+                pipeline.getDrainedBatches() + " blocks, " + pipeline.getDrainedItems() + " items"));
+        player.sendMessage(statLine("Pickup backlog", pipeline.getBacklogBatches() + " blocks"));
+        player.sendMessage(statLine("Junk filtered", pipeline.getFilteredItems() + " items"));
+        player.sendMessage(statLine("Priority replacements", plugin.getEvictionManager().getReplacedStacks() + " stacks"));
+
+        VaultManager vault = plugin.getVaultManager();
+        player.sendMessage(statLine("Overflow vault", vault.getStoredItems() + " items stored, "
+                + vault.getWithdrawnItems() + " withdrawn"));
+
+        VeinMinerManager vm = plugin.getVeinMinerManager();
+        player.sendMessage(statLine("Vein miner", vm.getVeinsStarted() + " veins, " + vm.getBlocksBroken()
+                + " blocks, " + vm.getActiveVeins() + " active"));
+
+        MagnetManager mm = plugin.getMagnetManager();
+        player.sendMessage(statLine("Magnet", mm.getScans() + " scans, " + mm.getEntitiesVisited()
+                + " entities checked, " + mm.getItemsPulled() + " items pulled"));
+
+        RegionManager rm = plugin.getRegionManager();
+        player.sendMessage(statLine("Region rules", rm.getRegionCount() + " regions in " + rm.getWorldCount() + " worlds"));
+    }
+
+    /**
+     * Show the current load tier and recent tier changes to an admin.
+     */
+    private void sendLoad(Player player) {
+        LoadManager lm = plugin.getLoadManager();
+
+        player.sendMessage(Component.text("AutoPickup load shedding:", NamedTextColor.GOLD));
+        player.sendMessage(statLine("Tier", lm.isEnabled() ? lm.getTier().name() : lm.getTier().name() + " (disabled)"));
+        player.sendMessage(statLine("Mean tick time", String.format("%.1f ms", lm.getMeanTickMillis())));
+        player.sendMessage(statLine("Thresholds", String.format("reduced %.0f, degraded %.0f, critical %.0f ms",
+                lm.getThreshold(LoadTier.REDUCED), lm.getThreshold(LoadTier.DEGRADED), lm.getThreshold(LoadTier.CRITICAL))));
+        player.sendMessage(statLine("Tier changes", String.valueOf(lm.getTransitionCount())));
+
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss");
+        for (LoadManager.Transition transition : lm.getRecentTransitions()) {
+            player.sendMessage(Component.text("    " + format.format(new Date(transition.time())) + " ", NamedTextColor.GRAY)
+                    .append(Component.text(transition.from() + " -> " + transition.to(), NamedTextColor.YELLOW))
+                    .append(Component.text(String.format(" (%.1f ms)", transition.meanMillis()), NamedTextColor.GRAY)));
+        }
+    }
+
+    private Component statLine(String name, String value) {
+        return Component.text("  - " + name + ": ", NamedTextColor.GRAY)
+                .append(Component.text(value, NamedTextColor.YELLOW));
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
             List<String> subCommands = new ArrayList<>();
+            if (sender.hasPermission("autopickup.vault")) {
+                subCommands.add("vault");
+            }
             if (sender.hasPermission("autopickup.admin")) {
-                subCommands.addAll(Arrays.asList("admin", "give", "reload"));
+                subCommands.addAll(Arrays.asList("admin", "give", "reload", "stats", "load"));
             }
             completions = subCommands.stream()
                     .filter(s -> s.toLowerCase().startsWith(args[0].toLowerCase()))
@@ -2,6 +2,8 @@ package com.autopickup.gui;
 
 import com.autopickup.AutoPickupPlugin;
 import com.autopickup.managers.PlayerDataManager;
+import com.autopickup.managers.SmeltingManager;
+import com.autopickup.utils.ConfigUtils;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -19,6 +21,26 @@ public class PlayerToggleGUI {
 
     private final AutoPickupPlugin plugin;
     private static final String GUI_TITLE = "AutoPickup Settings";
+    public static final String FILTER_GUI_TITLE = "AutoPickup Junk Filter";
+    public static final String SMELT_GUI_TITLE = "AutoPickup Smelt Selection";
+
+    public static final int AUTO_PICKUP_SLOT = 10;
+    public static final int AUTO_SMELT_SLOT = 12;
+    public static final int MOB_DROPS_SLOT = 14;
+    public static final int FISHING_SLOT = 16;
+    public static final int VEIN_MINER_SLOT = 20;
+    public static final int MAGNET_SLOT = 24;
+    public static final int AUTO_REPLANT_SLOT = 4;
+    public static final int JUNK_FILTER_SLOT = 18;
+    public static final int SMELT_SELECTION_SLOT = 26;
+    public static final int VAULT_SLOT = 8;
+
+    // Junk filter GUI
+    public static final int FILTER_MODE_SLOT = 49;
+    public static final int FILTER_BACK_SLOT = 53;
+
+    // Smelt selection GUI
+    public static final int SMELT_BACK_SLOT = 53;
 
     public PlayerToggleGUI(AutoPickupPlugin plugin) {
         this.plugin = plugin;
@@ -36,11 +58,41 @@ public class PlayerToggleGUI {
             gui.setItem(i, background);
         }
 
-        // Auto Pickup Toggle (slot 11)
-        gui.setItem(11, createAutoPickupItem(data.isAutoPickupEnabled()));
+        gui.setItem(AUTO_PICKUP_SLOT, createToggleItem("Auto Pickup", data.isAutoPickupEnabled(),
+                "When enabled, items from", "broken blocks go directly", "into your inventory."));
 
-        // Auto Smelt Toggle (slot 15)
-        gui.setItem(15, createAutoSmeltItem(data.isAutoSmeltEnabled()));
+        gui.setItem(AUTO_SMELT_SLOT, createToggleItem("Auto Smelt", data.isAutoSmeltEnabled(),
+                "When enabled, ores are", "automatically smelted when", "mined (e.g. Iron Ore → Iron Ingot)."));
+
+        gui.setItem(MOB_DROPS_SLOT, createToggleItem("Mob Drops", data.isMobDropsEnabled(),
+                "When enabled, drops of mobs", "you kill go directly", "into your inventory."));
+
+        gui.setItem(FISHING_SLOT, createToggleItem("Fishing", data.isFishingEnabled(),
+                "When enabled, fish and", "treasure you catch go", "directly into your inventory."));
+
+        gui.setItem(AUTO_REPLANT_SLOT, createToggleItem("Auto Replant", data.isAutoReplantEnabled(),
+                "When enabled, harvesting", "grown crops replants them", "with one of their seeds."));
+
+        if (player.hasPermission("autopickup.veinminer")) {
+            gui.setItem(VEIN_MINER_SLOT, createToggleItem("Vein Miner", data.isVeinMinerEnabled(),
+                    "When enabled, sneak while", "mining an ore or log to", "break the whole vein."));
+        }
+
+        if (player.hasPermission("autopickup.magnet")) {
+            gui.setItem(MAGNET_SLOT, createToggleItem("Magnet", data.isMagnetEnabled(),
+                    "When enabled, items lying", "near you are pulled", "into your inventory."));
+        }
+
+        if (!getFilterMaterials().isEmpty()) {
+            gui.setItem(JUNK_FILTER_SLOT, createJunkFilterItem(data));
+        }
+
+        gui.setItem(SMELT_SELECTION_SLOT, createSmeltSelectionItem(data));
+
+        if (plugin.getVaultManager().isEnabled() && player.hasPermission("autopickup.vault")) {
+            gui.setItem(VAULT_SLOT, createItem(Material.CHEST, "Overflow Vault",
+                    List.of("Items that don't fit in", "your inventory are kept", "here.", "", "Click to open!")));
+        }
 
         // Info item (slot 22)
         gui.setItem(22, createInfoItem());
@@ -48,7 +100,49 @@ public class PlayerToggleGUI {
         player.openInventory(gui);
     }
 
-    private ItemStack createAutoPickupItem(boolean enabled) {
+    /**
+     * Materials players can put in their junk filter, from the config.
+     */
+    public List<Material> getFilterMaterials() {
+        List<Material> materials = new ArrayList<>();
+        for (String name : plugin.getConfig().getStringList("junk-filter.materials")) {
+            Material material = Material.matchMaterial(name);
+            if (material != null && material.isItem() && !materials.contains(material)) {
+                materials.add(material);
+            }
+        }
+        return materials;
+    }
+
+    public void openFilterGUI(Player player) {
+        Inventory gui = Bukkit.createInventory(null, 54, Component.text(FILTER_GUI_TITLE, NamedTextColor.DARK_PURPLE)
+                .decoration(TextDecoration.BOLD, true));
+
+        PlayerDataManager.PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+
+        int slot = 0;
+        for (Material material : getFilterMaterials()) {
+            if (slot >= 45) break;
+            gui.setItem(slot++, createFilterToggleItem(material, data.isFiltered(material)));
+        }
+
+        ItemStack background = createItem(Material.GRAY_STAINED_GLASS_PANE, " ", null);
+        for (int i = 45; i < 54; i++) {
+            gui.setItem(i, background);
+        }
+
+        boolean drop = data.isFilterDropEnabled();
+        gui.setItem(FILTER_MODE_SLOT, createItem(drop ? Material.DROPPER : Material.LAVA_BUCKET,
+                drop ? "Mode: Leave on Ground" : "Mode: Void",
+                List.of(drop ? "Filtered items are dropped" : "Filtered items are",
+                        drop ? "and not picked up again." : "deleted.",
+                        "", "Click to change!")));
+        gui.setItem(FILTER_BACK_SLOT, createItem(Material.BARRIER, "Back", null));
+
+        player.openInventory(gui);
+    }
+
+    private ItemStack createToggleItem(String name, boolean enabled, String... description) {
         Material material = enabled ? Material.LIME_DYE : Material.GRAY_DYE;
         String status = enabled ? "ENABLED" : "DISABLED";
         NamedTextColor statusColor = enabled ? NamedTextColor.GREEN : NamedTextColor.RED;
@@ -57,7 +151,7 @@ public class PlayerToggleGUI {
         ItemMeta meta = item.getItemMeta();
 
         if (meta != null) {
-            meta.displayName(Component.text("Auto Pickup", NamedTextColor.GOLD)
+            meta.displayName(Component.text(name, NamedTextColor.GOLD)
                     .decoration(TextDecoration.ITALIC, false)
                     .decoration(TextDecoration.BOLD, true));
 
@@ -67,14 +161,77 @@ public class PlayerToggleGUI {
                     .append(Component.text(status, statusColor))
                     .decoration(TextDecoration.ITALIC, false));
             lore.add(Component.empty());
-            lore.add(Component.text("When enabled, items from", NamedTextColor.GRAY)
+            for (String line : description) {
+                lore.add(Component.text(line, NamedTextColor.GRAY)
+                        .decoration(TextDecoration.ITALIC, false));
+            }
+            lore.add(Component.empty());
+            lore.add(Component.text("Click to toggle!", NamedTextColor.YELLOW)
                     .decoration(TextDecoration.ITALIC, false));
-            lore.add(Component.text("broken blocks go directly", NamedTextColor.GRAY)
+
+            meta.lore(lore);
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+
+    /**
+     * Items the server auto smelts, in recipe order. Players choose among these.
+     */
+    public List<Material> getSmeltableMaterials() {
+        SmeltingManager sm = plugin.getSmeltingManager();
+        List<Material> materials = new ArrayList<>();
+        for (Material material : sm.getSmeltingRecipes().keySet()) {
+            if (sm.isItemEnabled(material)) {
+                materials.add(material);
+            }
+        }
+        return materials;
+    }
+
+    public void openSmeltGUI(Player player) {
+        Inventory gui = Bukkit.createInventory(null, 54, Component.text(SMELT_GUI_TITLE, NamedTextColor.DARK_PURPLE)
+                .decoration(TextDecoration.BOLD, true));
+
+        PlayerDataManager.PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+        SmeltingManager sm = plugin.getSmeltingManager();
+
+        int slot = 0;
+        for (Material material : getSmeltableMaterials()) {
+            if (slot >= 45) break;
+            gui.setItem(slot++, createSmeltToggleItem(material, sm.getSmeltedMaterial(material),
+                    !data.isSmeltSkipped(material)));
+        }
+
+        ItemStack background = createItem(Material.GRAY_STAINED_GLASS_PANE, " ", null);
+        for (int i = 45; i < 54; i++) {
+            gui.setItem(i, background);
+        }
+        gui.setItem(SMELT_BACK_SLOT, createItem(Material.BARRIER, "Back", null));
+
+        player.openInventory(gui);
+    }
+
+    private ItemStack createSmeltSelectionItem(PlayerDataManager.PlayerData data) {
+        ItemStack item = new ItemStack(Material.FURNACE);
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta != null) {
+            meta.displayName(Component.text("Smelt Selection", NamedTextColor.GOLD)
+                    .decoration(TextDecoration.ITALIC, false)
+                    .decoration(TextDecoration.BOLD, true));
+
+            List<Component> lore = new ArrayList<>();
+            lore.add(Component.empty());
+            lore.add(Component.text("Choose which items Auto", NamedTextColor.GRAY)
                     .decoration(TextDecoration.ITALIC, false));
-            lore.add(Component.text("into your inventory.", NamedTextColor.GRAY)
+            lore.add(Component.text("Smelt smelts for you", NamedTextColor.GRAY)
+                    .decoration(TextDecoration.ITALIC, false));
+            lore.add(Component.text("(e.g. iron but not copper).", NamedTextColor.GRAY)
                     .decoration(TextDecoration.ITALIC, false));
             lore.add(Component.empty());
-            lore.add(Component.text("Click to toggle!", NamedTextColor.YELLOW)
+            lore.add(Component.text("Click to edit!", NamedTextColor.YELLOW)
                     .decoration(TextDecoration.ITALIC, false));
 
             meta.lore(lore);
@@ -84,36 +241,89 @@ public class PlayerToggleGUI {
         return item;
     }
 
-    private ItemStack createAutoSmeltItem(boolean enabled) {
-        Material material = enabled ? Material.LIME_DYE : Material.GRAY_DYE;
-        String status = enabled ? "ENABLED" : "DISABLED";
-        NamedTextColor statusColor = enabled ? NamedTextColor.GREEN : NamedTextColor.RED;
-
-        ItemStack item = new ItemStack(material);
+    private ItemStack createSmeltToggleItem(Material input, Material output, boolean smelted) {
+        ItemStack item = new ItemStack(input);
         ItemMeta meta = item.getItemMeta();
 
         if (meta != null) {
-            meta.displayName(Component.text("Auto Smelt", NamedTextColor.GOLD)
+            meta.displayName(Component.text(ConfigUtils.formatMaterialName(input), NamedTextColor.GOLD)
                     .decoration(TextDecoration.ITALIC, false)
                     .decoration(TextDecoration.BOLD, true));
 
             List<Component> lore = new ArrayList<>();
             lore.add(Component.empty());
+            lore.add(Component.text("Smelts to: ", NamedTextColor.GRAY)
+                    .append(Component.text(ConfigUtils.formatMaterialName(output), NamedTextColor.WHITE))
+                    .decoration(TextDecoration.ITALIC, false));
+            lore.add(Component.empty());
             lore.add(Component.text("Status: ", NamedTextColor.GRAY)
-                    .append(Component.text(status, statusColor))
+                    .append(smelted ? Component.text("SMELTED", NamedTextColor.GREEN)
+                            : Component.text("KEPT", NamedTextColor.RED))
+                    .decoration(TextDecoration.ITALIC, false));
+            lore.add(Component.empty());
+            lore.add(Component.text("Click to toggle!", NamedTextColor.YELLOW)
+                    .decoration(TextDecoration.ITALIC, false));
+
+            meta.lore(lore);
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+
+    private ItemStack createJunkFilterItem(PlayerDataManager.PlayerData data) {
+        ItemStack item = new ItemStack(Material.HOPPER);
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta != null) {
+            meta.displayName(Component.text("Junk Filter", NamedTextColor.GOLD)
+                    .decoration(TextDecoration.ITALIC, false)
+                    .decoration(TextDecoration.BOLD, true));
+
+            List<Component> lore = new ArrayList<>();
+            lore.add(Component.empty());
+            int max = plugin.getPlayerDataManager().getMaxMaterials();
+            lore.add(Component.text("Filtered: ", NamedTextColor.GRAY)
+                    .append(Component.text(data.getFilteredCount() + (max < Integer.MAX_VALUE ? "/" + max : ""),
+                            NamedTextColor.WHITE))
                     .decoration(TextDecoration.ITALIC, false));
             lore.add(Component.empty());
-            lore.add(Component.text("When enabled, ores are", NamedTextColor.GRAY)
+            lore.add(Component.text("Choose items that are never", NamedTextColor.GRAY)
+                    .decoration(TextDecoration.ITALIC, false));
+            lore.add(Component.text("picked up automatically.", NamedTextColor.GRAY)
                     .decoration(TextDecoration.ITALIC, false));
-            lore.add(Component.text("automatically smelted when", NamedTextColor.GRAY)
+            lore.add(Component.empty());
+            lore.add(Component.text("Click to edit!", NamedTextColor.YELLOW)
                     .decoration(TextDecoration.ITALIC, false));
-            lore.add(Component.text("mined (e.g. Iron Ore → Iron Ingot).", NamedTextColor.GRAY)
+
+            meta.lore(lore);
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+
+    private ItemStack createFilterToggleItem(Material material, boolean filtered) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta != null) {
+            meta.displayName(Component.text(ConfigUtils.formatMaterialName(material), NamedTextColor.GOLD)
+                    .decoration(TextDecoration.ITALIC, false)
+                    .decoration(TextDecoration.BOLD, true));
+
+            List<Component> lore = new ArrayList<>();
+            lore.add(Component.empty());
+            lore.add(Component.text("Status: ", NamedTextColor.GRAY)
+                    .append(filtered ? Component.text("FILTERED", NamedTextColor.RED)
+                            : Component.text("PICKED UP", NamedTextColor.GREEN))
                     .decoration(TextDecoration.ITALIC, false));
             lore.add(Component.empty());
             lore.add(Component.text("Click to toggle!", NamedTextColor.YELLOW)
                     .decoration(TextDecoration.ITALIC, false));
 
             meta.lore(lore);
+            meta.setEnchantmentGlintOverride(filtered);
             item.setItemMeta(meta);
         }
 
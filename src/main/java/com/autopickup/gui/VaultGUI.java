@@ -0,0 +1,132 @@
+package com.autopickup.gui;
+
+import com.autopickup.AutoPickupPlugin;
+import com.autopickup.managers.PlayerSession;
+import com.autopickup.managers.VaultManager;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paginated view of a player's overflow vault. The items shown are icons
+ * only; real stacks are built by {@link VaultManager#withdraw} on click.
+ */
+public class VaultGUI {
+
+    private final AutoPickupPlugin plugin;
+    public static final String GUI_TITLE = "AutoPickup Vault";
+
+    public static final int ITEMS_PER_PAGE = 45;
+    public static final int PREVIOUS_PAGE_SLOT = 45;
+    public static final int INFO_SLOT = 49;
+    public static final int NEXT_PAGE_SLOT = 53;
+
+    public VaultGUI(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Open a page of the player's vault.
+     *
+     * @return the page actually shown, clamped to the pages there are
+     */
+    public int openGUI(Player player, int page) {
+        PlayerSession session = plugin.getSessionManager().getSession(player);
+        if (session == null) {
+            return 0;
+        }
+
+        Inventory gui = Bukkit.createInventory(null, 54, Component.text(GUI_TITLE, NamedTextColor.DARK_PURPLE)
+                .decoration(TextDecoration.BOLD, true));
+
+        VaultManager vm = plugin.getVaultManager();
+        List<Material> contents = vm.getContents(session);
+        int totalPages = Math.max(1, (contents.size() + ITEMS_PER_PAGE - 1) / ITEMS_PER_PAGE);
+        page = Math.max(0, Math.min(page, totalPages - 1));
+
+        int start = page * ITEMS_PER_PAGE;
+        int end = Math.min(start + ITEMS_PER_PAGE, contents.size());
+        for (int i = start; i < end; i++) {
+            Material material = contents.get(i);
+            gui.setItem(i - start, createVaultItem(material, vm.getStored(session, material)));
+        }
+
+        ItemStack background = createItem(Material.GRAY_STAINED_GLASS_PANE, " ", null);
+        for (int i = 45; i < 54; i++) {
+            gui.setItem(i, background);
+        }
+
+        if (page > 0) {
+            gui.setItem(PREVIOUS_PAGE_SLOT, createItem(Material.ARROW, "Previous Page", null));
+        }
+        if (page < totalPages - 1) {
+            gui.setItem(NEXT_PAGE_SLOT, createItem(Material.ARROW, "Next Page", null));
+        }
+        gui.setItem(INFO_SLOT, createItem(Material.CHEST, "Overflow Vault",
+                List.of("Page " + (page + 1) + "/" + totalPages,
+                        "Stored: " + vm.getTotal(session) + "/" + session.getVaultCapacity(),
+                        "",
+                        "Items that don't fit in your",
+                        "inventory are kept here.")));
+
+        player.openInventory(gui);
+        return page;
+    }
+
+    private ItemStack createVaultItem(Material material, long amount) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta != null) {
+            List<Component> lore = new ArrayList<>();
+            lore.add(Component.text("Stored: ", NamedTextColor.GRAY)
+                    .append(Component.text(amount, NamedTextColor.YELLOW))
+                    .decoration(TextDecoration.ITALIC, false));
+            lore.add(Component.empty());
+            lore.add(Component.text("Click to take a stack", NamedTextColor.GRAY)
+                    .decoration(TextDecoration.ITALIC, false));
+            lore.add(Component.text("Shift-click to take all", NamedTextColor.GRAY)
+                    .decoration(TextDecoration.ITALIC, false));
+            meta.lore(lore);
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+
+    private ItemStack createItem(Material material, String name, List<String> loreLines) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta != null) {
+            if (name != null && !name.isEmpty()) {
+                meta.displayName(Component.text(name, NamedTextColor.WHITE)
+                        .decoration(TextDecoration.ITALIC, false));
+            } else {
+                meta.displayName(Component.text(" "));
+            }
+
+            if (loreLines != null && !loreLines.isEmpty()) {
+                List<Component> lore = new ArrayList<>();
+                for (String line : loreLines) {
+                    lore.add(Component.text(line, NamedTextColor.GRAY)
+                            .decoration(TextDecoration.ITALIC, false));
+                }
+                meta.lore(lore);
+            }
+
+            item.setItemMeta(meta);
+        }
+
+        return item;
+    }
+}
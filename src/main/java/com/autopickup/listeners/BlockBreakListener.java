@@ -1,30 +1,54 @@
 package com.autopickup.listeners;
 
 import com.autopickup.AutoPickupPlugin;
-import com.autopickup.items.OreConverterItem;
-import com.autopickup.managers.ConversionRecipe;
-import com.autopickup.managers.ConverterManager;
+import com.autopickup.managers.DropBatch;
 import com.autopickup.managers.PlayerDataManager;
-import com.autopickup.managers.SmeltingManager;
-import com.autopickup.utils.ConfigUtils;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
+import com.autopickup.managers.PlayerSession;
+import com.autopickup.managers.RegionGrid;
+import com.autopickup.managers.VeinMinerManager;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.block.Container;
+import org.bukkit.block.ShulkerBox;
+import org.bukkit.block.data.Ageable;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 
 public class BlockBreakListener implements Listener {
 
+    // Seed item of each replantable crop, by block material ordinal
+    private static final Material[] SEEDS = new Material[Material.values().length];
+
+    static {
+        SEEDS[Material.WHEAT.ordinal()] = Material.WHEAT_SEEDS;
+        SEEDS[Material.CARROTS.ordinal()] = Material.CARROT;
+        SEEDS[Material.POTATOES.ordinal()] = Material.POTATO;
+        SEEDS[Material.BEETROOTS.ordinal()] = Material.BEETROOT_SEEDS;
+        SEEDS[Material.NETHER_WART.ordinal()] = Material.NETHER_WART;
+    }
+
+    /**
+     * A harvested crop to be placed again at age 0 on the next tick.
+     */
+    private record Replant(Block block, Ageable planted, Material seed, PlayerSession session, int rules) {
+    }
+
     private final AutoPickupPlugin plugin;
+    private final DropBatch batch = new DropBatch();
+    // Crops harvested this tick, replanted together by one task
+    private final List<Replant> replants = new ArrayList<>();
 
     public BlockBreakListener(AutoPickupPlugin plugin) {
         this.plugin = plugin;
@@ -40,144 +64,163 @@ public class BlockBreakListener implements Listener {
             return;
         }
 
-        // Check if player has permission
-        if (!player.hasPermission("autopickup.use")) {
+        // Permission and settings are resolved ahead of time in the session
+        PlayerSession session = plugin.getSessionManager().getSession(player);
+        if (session == null || !session.canUse()) {
             return;
         }
 
-        PlayerDataManager pdm = plugin.getPlayerDataManager();
-
         // Check if auto pickup is enabled for this player
-        if (!pdm.isAutoPickupEnabled(player)) {
+        if (!session.isAutoPickupEnabled()) {
+            return;
+        }
+
+        // Region rules can turn features off here
+        int rules = session.getRegions().resolve(block.getX(), block.getY(), block.getZ());
+        if ((rules & RegionGrid.PICKUP) == 0) {
             return;
         }
 
         // Get the drops
         Collection<ItemStack> drops = block.getDrops(player.getInventory().getItemInMainHand());
 
-        if (drops.isEmpty()) {
+        VeinMinerManager veinMiner = plugin.getVeinMinerManager();
+        if (veinMiner.isBreaking()) {
+            // Broken by the vein miner - delivered together with the rest of the vein
+            event.setDropItems(false);
+            veinMiner.collect(drops, event.getExpToDrop());
+            event.setExpToDrop(0);
             return;
         }
 
-        // Cancel the default drops
-        event.setDropItems(false);
+        List<ItemStack> harvest = replant(session, event, drops, rules);
+        if (harvest != null) {
+            // Harvests of one sweep are merged and inserted once per tick
+            plugin.getPickupPipeline().collect(session, harvest, rules);
+            return;
+        }
 
-        // Process each drop
-        SmeltingManager sm = plugin.getSmeltingManager();
-        ConverterManager cm = plugin.getConverterManager();
-        OreConverterItem oci = plugin.getOreConverterItem();
-        ItemStack offhandItem = player.getInventory().getItemOffHand();
-        boolean hasConverter = player.hasPermission("autopickup.converter") && oci.isConverterItem(offhandItem);
+        // Contents of containers would otherwise spill when the block is removed
+        ItemStack[] contents = takeContainerContents(block);
 
-        for (ItemStack drop : drops) {
-            ItemStack finalDrop = drop.clone();
-
-            // Check for ore converter in offhand - uses accumulator system
-            if (hasConverter) {
-                ConversionRecipe recipe = cm.findRecipeForItem(finalDrop.getType());
-                if (recipe != null) {
-                    finalDrop = processConverterWithAccumulator(finalDrop, recipe, player, cm);
-                    // If absorbed into accumulator, skip to next drop
-                    if (finalDrop == null) {
-                        continue;
-                    }
-                }
-            }
+        if (drops.isEmpty() && contents == null) {
+            return;
+        }
 
-            // Check for auto smelt
-            if (pdm.isAutoSmeltEnabled(player) && sm.canSmelt(finalDrop.getType())) {
-                finalDrop = sm.getSmeltedItem(finalDrop);
-            }
+        // Cancel the default drops
+        event.setDropItems(false);
 
-            // Try to add to inventory
-            HashMap<Integer, ItemStack> leftover = player.getInventory().addItem(finalDrop);
+        if (contents == null && veinMiner.start(session, block, drops, event.getExpToDrop(), rules)) {
+            // The vein takes this block's drops and experience as well
+            event.setExpToDrop(0);
+            return;
+        }
 
-            // If items couldn't fit in inventory, delete them instead of dropping
-            // (leftover items are now deleted rather than dropped on ground)
-            if (!leftover.isEmpty()) {
-                // Items are simply not added to the world - they're deleted
-                // Could add optional message to player here if desired
+        if (contents == null) {
+            // Convert, smelt and insert - possibly spread over the next ticks
+            plugin.getPickupPipeline().submit(session, drops, rules);
+        } else {
+            // Contents are merged into one stack per material and go into the
+            // inventory together with the block, without being smelted
+            for (ItemStack item : contents) {
+                if (item != null && !item.getType().isAir()) {
+                    batch.add(item);
+                }
             }
+            // What fits neither the inventory nor the vault spills here as before
+            plugin.getPickupPipeline().submit(session, drops, batch.drain(),
+                    block.getLocation().toCenterLocation(), rules);
         }
 
-        // Give experience if block would normally give experience
+        // Experience is collected and handed out once per delivery window
         int exp = event.getExpToDrop();
         if (exp > 0) {
-            player.giveExp(exp);
+            plugin.getExperienceManager().add(session, exp);
+            event.setExpToDrop(0);
         }
     }
 
     /**
-     * Process converter with accumulator system - items are absorbed until threshold is reached.
+     * Harvest a fully grown crop and replant it: one seed is taken from the
+     * drops, and the crop is placed again at age 0 on the next tick, together
+     * with every other crop harvested in the same tick. The break
+     * itself goes through, so tool durability, statistics and other plugins
+     * see a normal harvest. If the crop can't be placed again by then, the
+     * seed is given to the player instead.
+     *
+     * @return the drops without the seed, or null if the crop is not replanted
      */
-    private ItemStack processConverterWithAccumulator(ItemStack drop, ConversionRecipe recipe, Player player, ConverterManager cm) {
-        Material inputMaterial = drop.getType();
-        int dropAmount = drop.getAmount();
-        
-        // Add to accumulator
-        cm.addToAccumulator(player.getUniqueId(), inputMaterial, dropAmount);
-        
-        // Check accumulated amount
-        int accumulated = cm.getAccumulatedAmount(player.getUniqueId(), inputMaterial);
-        int inputRequired = recipe.getInputAmount();
-        
-        if (accumulated >= inputRequired) {
-            // Perform conversion
-            int conversions = accumulated / inputRequired;
-            int remainder = accumulated % inputRequired;
-            
-            // Give converted items using the full ItemStack (preserves custom name, lore, enchants, etc.)
-            ItemStack outputItem = recipe.getOutputItemStack();
-            outputItem.setAmount(conversions * recipe.getOutputAmount());
-            
-            HashMap<Integer, ItemStack> leftover = player.getInventory().addItem(outputItem);
-            
-            // If converted items couldn't fit, delete them instead of dropping
-            // (leftover items are now deleted rather than dropped on ground)
-            if (!leftover.isEmpty()) {
-                // Items are simply not added to the world - they're deleted
+    private List<ItemStack> replant(PlayerSession session, BlockBreakEvent event, Collection<ItemStack> drops, int rules) {
+        Block block = event.getBlock();
+        Material seed = SEEDS[block.getType().ordinal()];
+        if (seed == null || !session.hasSetting(PlayerDataManager.PlayerData.FLAG_AUTO_REPLANT)
+                || !plugin.getConfig().getBoolean("auto-replant.enabled", true)
+                || !(block.getBlockData() instanceof Ageable crop) || crop.getAge() < crop.getMaximumAge()) {
+            return null;
+        }
+
+        // getDrops() may be unmodifiable
+        List<ItemStack> harvest = new ArrayList<>(drops.size());
+        boolean seedTaken = false;
+        for (ItemStack drop : drops) {
+            if (!seedTaken && drop.getType() == seed && !drop.hasItemMeta()) {
+                seedTaken = true;
+                if (drop.getAmount() > 1) {
+                    ItemStack rest = drop.clone();
+                    rest.setAmount(drop.getAmount() - 1);
+                    harvest.add(rest);
+                }
+                continue;
             }
-            
-            // Update accumulator with remainder
-            cm.setAccumulator(player.getUniqueId(), inputMaterial, remainder);
-            
-            // Show conversion message
-            sendConversionMessage(player, recipe, conversions, remainder);
-        } else {
-            // Show progress in action bar
-            sendProgressActionBar(player, accumulated, inputRequired, inputMaterial);
+            harvest.add(drop);
         }
-        
-        // Return null - item has been absorbed into accumulator or converted
-        return null;
+        if (!seedTaken) {
+            return null;
+        }
+
+        event.setDropItems(false);
+        Ageable planted = (Ageable) crop.clone();
+        planted.setAge(0);
+        if (replants.isEmpty()) {
+            plugin.getServer().getScheduler().runTask(plugin, this::replantAll);
+        }
+        replants.add(new Replant(block, planted, seed, session, rules));
+        return harvest;
     }
-    
-    /**
-     * Send action bar showing accumulator progress.
-     */
-    private void sendProgressActionBar(Player player, int accumulated, int required, Material material) {
-        Component message = Component.text("Converter: ", NamedTextColor.GRAY)
-                .append(Component.text(accumulated, NamedTextColor.YELLOW))
-                .append(Component.text("/" + required + " ", NamedTextColor.GOLD))
-                .append(Component.text(ConfigUtils.formatMaterialName(material), NamedTextColor.AQUA));
-        player.sendActionBar(message);
+
+    private void replantAll() {
+        for (Replant replant : replants) {
+            Block block = replant.block();
+            PlayerSession session = replant.session();
+            if (block.getType().isAir() && replant.planted().isSupported(block)) {
+                block.setBlockData(replant.planted());
+            } else if (plugin.getSessionManager().getSession(session.getUniqueId()) == session) {
+                plugin.getPickupPipeline().collect(session, List.of(new ItemStack(replant.seed())), replant.rules());
+            }
+        }
+        replants.clear();
     }
-    
+
     /**
-     * Send message when conversion completes.
+     * Take the items out of a container block, or null if it is not a container
+     * or empty. Shulker boxes keep their contents in the dropped item.
      */
-    private void sendConversionMessage(Player player, ConversionRecipe recipe, int conversions, int remainder) {
-        String outputName = ConfigUtils.formatMaterialName(recipe.getOutputItem());
-        int outputTotal = conversions * recipe.getOutputAmount();
-        
-        Component message = Component.text("Converted! ", NamedTextColor.GREEN)
-                .append(Component.text("+" + outputTotal + " ", NamedTextColor.YELLOW))
-                .append(Component.text(outputName, NamedTextColor.AQUA));
-        
-        if (remainder > 0) {
-            message = message.append(Component.text(" (" + remainder + " remaining)", NamedTextColor.GRAY));
-        }
-        
-        player.sendActionBar(message);
+    private ItemStack[] takeContainerContents(Block block) {
+        if (!plugin.getConfig().getBoolean("auto-pickup.container-contents", true)) {
+            return null;
+        }
+        BlockState state = block.getState(false);
+        if (!(state instanceof Container container) || state instanceof ShulkerBox) {
+            return null;
+        }
+
+        // Only this half of a double chest
+        Inventory inventory = state instanceof Chest chest ? chest.getBlockInventory() : container.getInventory();
+        if (inventory.isEmpty()) {
+            return null;
+        }
+        ItemStack[] contents = inventory.getContents();
+        inventory.clear();
+        return contents;
     }
 }
@@ -0,0 +1,193 @@
+package com.autopickup.listeners;
+
+import com.autopickup.AutoPickupPlugin;
+import com.autopickup.managers.DropBatch;
+import com.autopickup.managers.PlayerSession;
+import com.autopickup.managers.RegionGrid;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.type.Bed;
+import org.bukkit.entity.Creeper;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.TNTPrimed;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Auto-pickup for blocks destroyed by explosions. The explosion is attributed
+ * to a player (who lit the TNT, the creeper's target, who used the bed or
+ * respawn anchor), its drops are collected into a {@link DropBatch} and handed
+ * to the pickup pipeline as one batch instead of spawning item entities.
+ */
+public class ExplosionListener implements Listener {
+
+    // Interactions older than this can no longer be the cause of a block explosion
+    private static final int INTERACTION_TICKS = 5;
+
+    private record Interaction(UUID world, UUID player, int tick) {
+    }
+
+    private final AutoPickupPlugin plugin;
+    private final DropBatch batch = new DropBatch();
+    // Beds and respawn anchors used by players, by packed block position
+    private final Map<Long, Interaction> interactions = new HashMap<>();
+
+    public ExplosionListener(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        Player player = findResponsiblePlayer(event.getEntity());
+        if (player != null) {
+            event.setYield(collect(player, event.getLocation(), event.blockList(), event.getYield()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        Block block = event.getBlock();
+        Interaction interaction = interactions.remove(pack(block));
+        if (interaction == null
+                || !interaction.world().equals(block.getWorld().getUID())
+                || plugin.getServer().getCurrentTick() - interaction.tick() > INTERACTION_TICKS) {
+            return;
+        }
+
+        Player player = plugin.getServer().getPlayer(interaction.player());
+        if (player != null) {
+            event.setYield(collect(player, block.getLocation(), event.blockList(), event.getYield()));
+        }
+    }
+
+    /**
+     * Remember who used a bed or respawn anchor that is about to explode.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInteract(PlayerInteractEvent event) {
+        Block block = event.getClickedBlock();
+        if (event.getAction() != Action.RIGHT_CLICK_BLOCK || block == null) {
+            return;
+        }
+
+        World.Environment environment = block.getWorld().getEnvironment();
+        boolean bed = Tag.BEDS.isTagged(block.getType()) && environment != World.Environment.NORMAL;
+        boolean anchor = block.getType() == Material.RESPAWN_ANCHOR && environment != World.Environment.NETHER;
+        if (!bed && !anchor) {
+            return;
+        }
+
+        int tick = plugin.getServer().getCurrentTick();
+        if (interactions.size() > 64) {
+            pruneInteractions(tick);
+        }
+
+        Interaction interaction = new Interaction(block.getWorld().getUID(), event.getPlayer().getUniqueId(), tick);
+        interactions.put(pack(block), interaction);
+        if (bed && block.getBlockData() instanceof Bed data) {
+            // The explosion happens at the head of the bed, whichever half was clicked
+            Block other = data.getPart() == Bed.Part.FOOT
+                    ? block.getRelative(data.getFacing())
+                    : block.getRelative(data.getFacing().getOppositeFace());
+            interactions.put(pack(other), interaction);
+        }
+    }
+
+    private void pruneInteractions(int tick) {
+        Iterator<Interaction> it = interactions.values().iterator();
+        while (it.hasNext()) {
+            if (tick - it.next().tick() > INTERACTION_TICKS) {
+                it.remove();
+            }
+        }
+    }
+
+    private Player findResponsiblePlayer(Entity entity) {
+        if (entity instanceof TNTPrimed tnt) {
+            return tnt.getSource() instanceof Player player ? player : null;
+        }
+        if (entity instanceof Creeper creeper) {
+            LivingEntity target = creeper.getTarget();
+            return target instanceof Player player ? player : null;
+        }
+        return null;
+    }
+
+    /**
+     * Collect the drops of exploded blocks for a player.
+     *
+     * @return the yield to set on the event - 0 if the drops were taken, the original yield otherwise
+     */
+    private float collect(Player player, Location center, List<Block> blocks, float yield) {
+        if (!plugin.getConfig().getBoolean("explosions.enabled", true) || player.getGameMode() == GameMode.CREATIVE) {
+            return yield;
+        }
+
+        PlayerSession session = plugin.getSessionManager().getSession(player);
+        if (session == null || !session.canUse() || !session.isAutoPickupEnabled()) {
+            return yield;
+        }
+
+        double maxDistance = plugin.getConfig().getDouble("explosions.max-distance", 64);
+        if (!player.getWorld().equals(center.getWorld())
+                || player.getLocation().distanceSquared(center) > maxDistance * maxDistance) {
+            return yield;
+        }
+
+        int rules = getRules(session, center);
+        if ((rules & RegionGrid.PICKUP) == 0) {
+            return yield;
+        }
+
+        // Same chance per block as vanilla applies to explosion drops
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (Block block : blocks) {
+            // TNT in the blast is primed by vanilla instead of dropping
+            if (block.getType().isAir() || block.getType() == Material.TNT || random.nextFloat() >= yield) {
+                continue;
+            }
+            for (ItemStack drop : block.getDrops()) {
+                batch.add(drop);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            // Nothing was taken, leave the explosion as it was
+            return yield;
+        }
+        plugin.getPickupPipeline().submit(session, batch.drain(), rules);
+        // The blocks are still destroyed, but drop nothing themselves
+        return 0f;
+    }
+
+    private int getRules(PlayerSession session, Location location) {
+        // The session only caches the rules of the player's own world
+        RegionGrid regions = location.getWorld().equals(session.getPlayer().getWorld())
+                ? session.getRegions()
+                : plugin.getRegionManager().getGrid(location.getWorld());
+        return regions.resolve(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private static long pack(Block block) {
+        return ((long) (block.getX() & 0x3FFFFFF) << 38) | ((long) (block.getZ() & 0x3FFFFFF) << 12) | (block.getY() & 0xFFF);
+    }
+}
@@ -3,8 +3,11 @@ package com.autopickup.listeners;
 import com.autopickup.AutoPickupPlugin;
 import com.autopickup.gui.AdminConfigGUI;
 import com.autopickup.gui.PlayerToggleGUI;
+import com.autopickup.gui.VaultGUI;
 import com.autopickup.managers.ConversionRecipe;
 import com.autopickup.managers.ConverterManager;
+import com.autopickup.managers.PlayerDataManager;
+import com.autopickup.managers.PlayerSession;
 import com.autopickup.managers.SmeltingManager;
 import com.autopickup.utils.ConfigUtils;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
@@ -29,7 +32,7 @@ public class InventoryClickListener implements Listener {
     // Store editing recipe data per player
     private final Map<UUID, RecipeEditData> editingRecipes = new HashMap<>();
     
-    // Store current page per player for recipe GUI
+    // Store current page per player for recipe and vault GUI
     private final Map<UUID, Integer> playerPages = new HashMap<>();
     
     public int getCurrentPage(Player player) {
@@ -58,6 +61,7 @@ public class InventoryClickListener implements Listener {
         private int inputAmount = 1;
         private ItemStack outputItemStack = new ItemStack(Material.EMERALD); // Full ItemStack for custom items
         private int outputAmount = 1;
+        private int priority = 0;
         
         public int getEditingIndex() { return editingIndex; }
         public void setEditingIndex(int index) { this.editingIndex = index; }
@@ -99,6 +103,9 @@ public class InventoryClickListener implements Listener {
         public int getOutputAmount() { return outputAmount; }
         public void setOutputAmount(int amount) { this.outputAmount = Math.max(1, amount); } // Removed 64 max limit
         
+        public int getPriority() { return priority; }
+        public void setPriority(int priority) { this.priority = priority; }
+        
         public boolean isNewRecipe() { return editingIndex == -1; }
     }
     
@@ -129,6 +136,24 @@ public class InventoryClickListener implements Listener {
             return;
         }
 
+        // Handle Junk Filter GUI
+        if (title.equals(PlayerToggleGUI.FILTER_GUI_TITLE)) {
+            handleFilterGUI(event, player);
+            return;
+        }
+
+        // Handle Smelt Selection GUI
+        if (title.equals(PlayerToggleGUI.SMELT_GUI_TITLE)) {
+            handleSmeltSelectionGUI(event, player);
+            return;
+        }
+
+        // Handle Overflow Vault GUI
+        if (title.equals(VaultGUI.GUI_TITLE)) {
+            handleVaultGUI(event, player);
+            return;
+        }
+
         // Handle Admin Main GUI
         if (title.equals(AdminConfigGUI.MAIN_GUI_TITLE)) {
             handleAdminMainGUI(event, player);
@@ -169,6 +194,9 @@ public class InventoryClickListener implements Listener {
         
         // For custom GUIs, only cancel if dragging affects GUI slots (not player inventory)
         if (title.equals(PlayerToggleGUI.getGuiTitle()) ||
+                title.equals(PlayerToggleGUI.FILTER_GUI_TITLE) ||
+                title.equals(PlayerToggleGUI.SMELT_GUI_TITLE) ||
+                title.equals(VaultGUI.GUI_TITLE) ||
                 title.equals(AdminConfigGUI.MAIN_GUI_TITLE) ||
                 title.equals(AdminConfigGUI.CONVERTER_GUI_TITLE) ||
                 title.equals(AdminConfigGUI.SMELTING_GUI_TITLE) ||
@@ -189,14 +217,20 @@ public class InventoryClickListener implements Listener {
         if (!(event.getPlayer() instanceof Player player)) {
             return;
         }
+
+        // The player may have moved items around, which the slot index can't see
+        PlayerSession session = plugin.getSessionManager().getSession(player);
+        if (session != null) {
+            session.invalidateSlotIndex();
+        }
         
         String title = getInventoryTitle(event.getInventory());
         if (title == null) {
             return;
         }
         
-        // Clear pagination data when player closes recipe GUI
-        if (title.equals(AdminConfigGUI.CONVERTER_GUI_TITLE)) {
+        // Clear pagination data when player closes recipe or vault GUI
+        if (title.equals(AdminConfigGUI.CONVERTER_GUI_TITLE) || title.equals(VaultGUI.GUI_TITLE)) {
             clearCurrentPage(player);
         }
         
@@ -211,26 +245,160 @@ public class InventoryClickListener implements Listener {
 
         int slot = event.getRawSlot();
 
-        // Auto Pickup toggle (slot 11)
-        if (slot == 11) {
-            plugin.getPlayerDataManager().toggleAutoPickup(player);
-            boolean enabled = plugin.getPlayerDataManager().isAutoPickupEnabled(player);
-            String messageKey = enabled ? "auto-pickup-enabled" : "auto-pickup-disabled";
-            player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), messageKey));
-            player.closeInventory();
-            // Reopen GUI to show updated status
-            new PlayerToggleGUI(plugin).openGUI(player);
+        PlayerDataManager pdm = plugin.getPlayerDataManager();
+        String messageKey;
+        switch (slot) {
+            case PlayerToggleGUI.AUTO_PICKUP_SLOT -> {
+                pdm.toggleAutoPickup(player);
+                messageKey = pdm.isAutoPickupEnabled(player) ? "auto-pickup-enabled" : "auto-pickup-disabled";
+            }
+            case PlayerToggleGUI.AUTO_SMELT_SLOT -> {
+                pdm.toggleAutoSmelt(player);
+                messageKey = pdm.isAutoSmeltEnabled(player) ? "auto-smelt-enabled" : "auto-smelt-disabled";
+            }
+            case PlayerToggleGUI.MOB_DROPS_SLOT -> {
+                pdm.toggleMobDrops(player);
+                messageKey = pdm.isMobDropsEnabled(player) ? "mob-drops-enabled" : "mob-drops-disabled";
+            }
+            case PlayerToggleGUI.FISHING_SLOT -> {
+                pdm.toggleFishing(player);
+                messageKey = pdm.isFishingEnabled(player) ? "fishing-enabled" : "fishing-disabled";
+            }
+            case PlayerToggleGUI.VEIN_MINER_SLOT -> {
+                if (!player.hasPermission("autopickup.veinminer")) {
+                    return;
+                }
+                pdm.toggleVeinMiner(player);
+                messageKey = pdm.isVeinMinerEnabled(player) ? "vein-miner-enabled" : "vein-miner-disabled";
+            }
+            case PlayerToggleGUI.AUTO_REPLANT_SLOT -> {
+                pdm.toggleAutoReplant(player);
+                messageKey = pdm.isAutoReplantEnabled(player) ? "auto-replant-enabled" : "auto-replant-disabled";
+            }
+            case PlayerToggleGUI.MAGNET_SLOT -> {
+                if (!player.hasPermission("autopickup.magnet")) {
+                    return;
+                }
+                pdm.toggleMagnet(player);
+                messageKey = pdm.isMagnetEnabled(player) ? "magnet-enabled" : "magnet-disabled";
+            }
+            case PlayerToggleGUI.JUNK_FILTER_SLOT -> {
+                PlayerToggleGUI gui = new PlayerToggleGUI(plugin);
+                if (!gui.getFilterMaterials().isEmpty()) {
+                    gui.openFilterGUI(player);
+                }
+                return;
+            }
+            case PlayerToggleGUI.SMELT_SELECTION_SLOT -> {
+                new PlayerToggleGUI(plugin).openSmeltGUI(player);
+                return;
+            }
+            case PlayerToggleGUI.VAULT_SLOT -> {
+                if (plugin.getVaultManager().isEnabled() && player.hasPermission("autopickup.vault")) {
+                    // Set the page after opening, closing the old GUI clears it
+                    setCurrentPage(player, new VaultGUI(plugin).openGUI(player, 0));
+                }
+                return;
+            }
+            default -> {
+                return;
+            }
         }
 
-        // Auto Smelt toggle (slot 15)
-        if (slot == 15) {
-            plugin.getPlayerDataManager().toggleAutoSmelt(player);
-            boolean enabled = plugin.getPlayerDataManager().isAutoSmeltEnabled(player);
-            String messageKey = enabled ? "auto-smelt-enabled" : "auto-smelt-disabled";
-            player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), messageKey));
-            player.closeInventory();
-            // Reopen GUI to show updated status
-            new PlayerToggleGUI(plugin).openGUI(player);
+        player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), messageKey));
+        player.closeInventory();
+        // Reopen GUI to show updated status
+        new PlayerToggleGUI(plugin).openGUI(player);
+    }
+
+    private void handleFilterGUI(InventoryClickEvent event, Player player) {
+        event.setCancelled(true);
+
+        int slot = event.getRawSlot();
+        PlayerToggleGUI gui = new PlayerToggleGUI(plugin);
+        PlayerDataManager pdm = plugin.getPlayerDataManager();
+
+        if (slot == PlayerToggleGUI.FILTER_BACK_SLOT) {
+            gui.openGUI(player);
+            return;
+        }
+
+        if (slot == PlayerToggleGUI.FILTER_MODE_SLOT) {
+            pdm.toggleFilterDrop(player);
+            gui.openFilterGUI(player);
+            return;
+        }
+
+        // Toggle the clicked material
+        if (slot >= 0 && slot < 45) {
+            ItemStack clickedItem = event.getCurrentItem();
+            if (clickedItem != null && clickedItem.getType() != Material.AIR
+                    && gui.getFilterMaterials().contains(clickedItem.getType())) {
+                if (!pdm.toggleFiltered(player, clickedItem.getType())) {
+                    player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), "junk-filter-full"));
+                    return;
+                }
+                gui.openFilterGUI(player);
+            }
+        }
+    }
+
+    private void handleSmeltSelectionGUI(InventoryClickEvent event, Player player) {
+        event.setCancelled(true);
+
+        int slot = event.getRawSlot();
+        PlayerToggleGUI gui = new PlayerToggleGUI(plugin);
+
+        if (slot == PlayerToggleGUI.SMELT_BACK_SLOT) {
+            gui.openGUI(player);
+            return;
+        }
+
+        // Toggle the clicked item
+        if (slot >= 0 && slot < 45) {
+            ItemStack clickedItem = event.getCurrentItem();
+            if (clickedItem != null && clickedItem.getType() != Material.AIR
+                    && gui.getSmeltableMaterials().contains(clickedItem.getType())) {
+                if (!plugin.getPlayerDataManager().toggleSmeltSkipped(player, clickedItem.getType())) {
+                    player.sendMessage(ConfigUtils.getColoredMessage(plugin.getConfig(), "smelt-selection-full"));
+                    return;
+                }
+                gui.openSmeltGUI(player);
+            }
+        }
+    }
+
+    private void handleVaultGUI(InventoryClickEvent event, Player player) {
+        event.setCancelled(true);
+
+        int slot = event.getRawSlot();
+        int page = getCurrentPage(player);
+        VaultGUI gui = new VaultGUI(plugin);
+
+        // Set the page after opening, closing the old GUI clears it
+        if (slot == VaultGUI.PREVIOUS_PAGE_SLOT && page > 0) {
+            setCurrentPage(player, gui.openGUI(player, page - 1));
+            return;
+        }
+        if (slot == VaultGUI.NEXT_PAGE_SLOT) {
+            setCurrentPage(player, gui.openGUI(player, page + 1));
+            return;
+        }
+
+        // Take out the clicked material
+        if (slot >= 0 && slot < VaultGUI.ITEMS_PER_PAGE) {
+            ItemStack clickedItem = event.getCurrentItem();
+            PlayerSession session = plugin.getSessionManager().getSession(player);
+            if (clickedItem == null || clickedItem.getType() == Material.AIR || session == null) {
+                return;
+            }
+            Material material = clickedItem.getType();
+            int max = Math.max(1, material.getMaxStackSize());
+            // Shift-click takes at most a full inventory
+            int amount = event.isShiftClick() ? max * 36 : max;
+            if (plugin.getVaultManager().withdraw(session, material, amount) > 0) {
+                setCurrentPage(player, gui.openGUI(player, page));
+            }
         }
     }
 
@@ -283,6 +451,7 @@ public class InventoryClickListener implements Listener {
             editData.setInputAmount(1);
             editData.setOutputItemStack(new ItemStack(Material.EMERALD));
             editData.setOutputAmount(1);
+            editData.setPriority(0);
             new AdminConfigGUI(plugin).openEditRecipeGUI(player, editData);
             return;
         }
@@ -328,6 +497,7 @@ public class InventoryClickListener implements Listener {
                     editData.setInputAmount(recipe.getInputAmount());
                     editData.setOutputItemStack(recipe.getOutputItemStack()); // Store full ItemStack
                     editData.setOutputAmount(recipe.getOutputAmount());
+                    editData.setPriority(recipe.getPriority()); // Priority is only editable in config
                     new AdminConfigGUI(plugin).openEditRecipeGUI(player, editData);
                 }
             }
@@ -447,6 +617,7 @@ public class InventoryClickListener implements Listener {
                 editData.getOutputItemStack(),
                 editData.getOutputAmount()
             );
+            newRecipe.setPriority(editData.getPriority());
             
             if (editData.isNewRecipe()) {
                 if (cm.addRecipe(newRecipe)) {
@@ -1,9 +1,9 @@
 package com.autopickup.listeners;
 
 import com.autopickup.AutoPickupPlugin;
-import com.autopickup.items.OreConverterItem;
 import com.autopickup.managers.ConversionRecipe;
 import com.autopickup.managers.ConverterManager;
+import com.autopickup.managers.PlayerSession;
 import com.autopickup.utils.ConfigUtils;
 import com.autopickup.utils.InventoryUtils;
 import net.kyori.adventure.text.Component;
@@ -39,11 +39,14 @@ public class InventoryConversionListener implements Listener {
         }
 
         Player player = event.getPlayer();
-        ItemStack offhandItem = player.getInventory().getItemOffHand();
-        OreConverterItem oci = plugin.getOreConverterItem();
+        PlayerSession session = plugin.getSessionManager().getSession(player);
+        if (session == null) {
+            return;
+        }
 
         // Check if player is holding converter item in offhand
-        if (!player.hasPermission("autopickup.converter") || !oci.isConverterItem(offhandItem)) {
+        plugin.getSessionManager().refreshOffhand(session);
+        if (!session.hasActiveConverter()) {
             return;
         }
 
@@ -56,13 +59,14 @@ public class InventoryConversionListener implements Listener {
         event.setCancelled(true);
 
         // Perform inventory conversion
-        performInventoryConversion(player);
+        performInventoryConversion(session);
     }
 
     /**
      * Scans player's inventory for items matching recipes and converts them.
      */
-    private void performInventoryConversion(Player player) {
+    private void performInventoryConversion(PlayerSession session) {
+        Player player = session.getPlayer();
         ConverterManager cm = plugin.getConverterManager();
         PlayerInventory inventory = player.getInventory();
         
@@ -70,7 +74,7 @@ public class InventoryConversionListener implements Listener {
         Map<ConversionRecipe, Integer> conversionsPerRecipe = new HashMap<>();
         
         // Scan through all recipes
-        for (ConversionRecipe recipe : cm.getRecipes()) {
+        for (ConversionRecipe recipe : cm.getSnapshot().getActiveRecipes()) {
             Material inputMaterial = recipe.getInputItem();
             int inputRequired = recipe.getInputAmount();
             
@@ -88,7 +92,8 @@ public class InventoryConversionListener implements Listener {
                 // Give output items to player
                 ItemStack outputItem = recipe.getOutputItemStack();
                 int outputAmount = possibleConversions * recipe.getOutputAmount();
-                InventoryUtils.giveItemsToPlayer(player, outputItem, outputAmount);
+                plugin.getPickupPipeline().handleOverflow(session,
+                        InventoryUtils.giveItemsToPlayer(player, outputItem, outputAmount));
                 
                 // Track conversion
                 conversionsPerRecipe.put(recipe, possibleConversions);
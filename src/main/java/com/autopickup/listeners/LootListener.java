@@ -0,0 +1,124 @@
+package com.autopickup.listeners;
+
+import com.autopickup.AutoPickupPlugin;
+import com.autopickup.managers.PlayerDataManager.PlayerData;
+import com.autopickup.managers.PlayerSession;
+import com.autopickup.managers.RegionGrid;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.player.PlayerFishEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * Auto-pickup for mob drops (given to the killer) and fishing catches. Both go
+ * through the same pickup pipeline as broken blocks; mob drops are merged per
+ * player and tick, so a mob farm costs one inventory pass per tick. Also keeps
+ * players from walking over junk they chose to leave on the ground.
+ */
+public class LootListener implements Listener {
+
+    private final AutoPickupPlugin plugin;
+
+    public LootListener(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onEntityDeath(EntityDeathEvent event) {
+        LivingEntity entity = event.getEntity();
+        // A player's own items are never handed to their killer
+        if (entity instanceof Player) {
+            return;
+        }
+
+        PlayerSession session = getSession(entity.getKiller(), PlayerData.FLAG_MOB_DROPS);
+        if (session == null) {
+            return;
+        }
+        int rules = getRules(session, entity.getLocation());
+        if ((rules & RegionGrid.PICKUP) == 0) {
+            return;
+        }
+
+        List<ItemStack> drops = event.getDrops();
+        if (!drops.isEmpty()) {
+            plugin.getPickupPipeline().collect(session, drops, rules);
+            drops.clear();
+        }
+
+        int exp = event.getDroppedExp();
+        if (exp > 0) {
+            plugin.getExperienceManager().add(session, exp);
+            event.setDroppedExp(0);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onFish(PlayerFishEvent event) {
+        if (event.getState() != PlayerFishEvent.State.CAUGHT_FISH || !(event.getCaught() instanceof Item caught)) {
+            return;
+        }
+
+        PlayerSession session = getSession(event.getPlayer(), PlayerData.FLAG_FISHING);
+        if (session == null) {
+            return;
+        }
+        int rules = getRules(session, event.getPlayer().getLocation());
+        if ((rules & RegionGrid.PICKUP) == 0) {
+            return;
+        }
+
+        // The catch is already spawned and flying towards the player
+        plugin.getPickupPipeline().submit(session, List.of(caught.getItemStack()), rules);
+        caught.remove();
+
+        int exp = event.getExpToDrop();
+        if (exp > 0) {
+            plugin.getExperienceManager().add(session, exp);
+            event.setExpToDrop(0);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onItemPickup(EntityPickupItemEvent event) {
+        if (!(event.getEntity() instanceof Player player)) {
+            return;
+        }
+        PlayerSession session = plugin.getSessionManager().getSession(player);
+        // Filtered drops that were left on the ground for this player stay there,
+        // unless the player took the material off their filter since
+        if (session != null && session.isFiltered(event.getItem().getItemStack().getType())
+                && plugin.getPickupPipeline().isFilteredDrop(event.getItem(), player)) {
+            event.setCancelled(true);
+        }
+    }
+
+    private PlayerSession getSession(Player player, int setting) {
+        if (player == null || player.getGameMode() == GameMode.CREATIVE) {
+            return null;
+        }
+        PlayerSession session = plugin.getSessionManager().getSession(player);
+        if (session == null || !session.canUse() || !session.hasSetting(setting)) {
+            return null;
+        }
+        return session;
+    }
+
+    private int getRules(PlayerSession session, Location location) {
+        // The session only caches the rules of the player's own world
+        RegionGrid regions = location.getWorld().equals(session.getPlayer().getWorld())
+                ? session.getRegions()
+                : plugin.getRegionManager().getGrid(location.getWorld());
+        return regions.resolve(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+}
@@ -1,12 +1,13 @@
 package com.autopickup.listeners;
 
 import com.autopickup.AutoPickupPlugin;
+import com.autopickup.managers.PlayerSession;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
- * Listener to clean up player data when they leave the server.
+ * Listener to save and clean up player data when they leave the server.
  */
 public class PlayerQuitListener implements Listener {
 
@@ -18,7 +19,25 @@ public class PlayerQuitListener implements Listener {
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
-        // Clear accumulator data when player logs out
-        plugin.getConverterManager().clearAccumulators(event.getPlayer().getUniqueId());
+        PlayerSession session = plugin.getSessionManager().removeSession(event.getPlayer().getUniqueId());
+        if (session != null) {
+            // A vein in progress ends here and joins the deferred drops
+            plugin.getVeinMinerManager().cancel(session);
+
+            // Deliver deferred drops while the inventory is still there
+            plugin.getPickupPipeline().flush(session);
+
+            // Experience that is still buffered must not be lost
+            plugin.getExperienceManager().flush(session);
+
+            // Persist accumulator progress and free the in-memory row
+            plugin.getConverterManager().unloadAccumulators(session);
+
+            // Overflow from the flush above is already in the vault
+            plugin.getVaultManager().unload(session);
+        }
+
+        // Move settings out of the online set into the bounded recent cache
+        plugin.getPlayerDataManager().unloadPlayer(event.getPlayer().getUniqueId());
     }
 }
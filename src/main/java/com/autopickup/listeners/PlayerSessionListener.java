@@ -0,0 +1,152 @@
+package com.autopickup.listeners;
+
+import com.autopickup.AutoPickupPlugin;
+import com.autopickup.managers.PlayerSession;
+import com.autopickup.managers.SessionManager;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerItemBreakEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+
+/**
+ * Creates player sessions on join and keeps their cached permission and
+ * offhand state in sync with the events that can change them.
+ */
+public class PlayerSessionListener implements Listener {
+
+    private final AutoPickupPlugin plugin;
+
+    public PlayerSessionListener(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Load settings on the async login thread so the join itself does not hit the disk.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            plugin.getPlayerDataManager().preload(event.getUniqueId());
+        }
+    }
+
+    /**
+     * Logins refused after the pre-login (ban, whitelist, full server) never
+     * join, so their preloaded settings would never be picked up.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            plugin.getPlayerDataManager().discardPreloaded(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        plugin.getSessionManager().createSession(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSwapHandItems(PlayerSwapHandItemsEvent event) {
+        // The offhand is only updated after the event, so refresh on the next tick
+        scheduleOffhandRefresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemHeld(PlayerItemHeldEvent event) {
+        SessionManager sm = plugin.getSessionManager();
+        PlayerSession session = sm.getSession(event.getPlayer());
+        if (session != null) {
+            sm.refreshOffhand(session);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        scheduleOffhandRefresh(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        scheduleOffhandRefresh(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClose(InventoryCloseEvent event) {
+        scheduleOffhandRefresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onItemBreak(PlayerItemBreakEvent event) {
+        // The broken item is removed after the event
+        scheduleOffhandRefresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDeath(PlayerDeathEvent event) {
+        // The inventory is dropped after the event, unless keepInventory is on
+        scheduleOffhandRefresh(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        scheduleOffhandRefresh(event.getPlayer());
+    }
+
+    /**
+     * Sent whenever the server resends the command tree, which permission
+     * plugins trigger after recalculating a player's permissions.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCommandSend(PlayerCommandSendEvent event) {
+        refreshPermissions(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        // Per-world permissions may differ
+        refreshPermissions(event.getPlayer());
+
+        SessionManager sm = plugin.getSessionManager();
+        PlayerSession session = sm.getSession(event.getPlayer());
+        if (session != null) {
+            sm.refreshRegions(session);
+        }
+    }
+
+    private void refreshPermissions(Player player) {
+        SessionManager sm = plugin.getSessionManager();
+        PlayerSession session = sm.getSession(player);
+        if (session != null) {
+            sm.refreshPermissions(session);
+        }
+    }
+
+    private void scheduleOffhandRefresh(HumanEntity entity) {
+        if (!(entity instanceof Player player)) {
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            SessionManager sm = plugin.getSessionManager();
+            PlayerSession session = sm.getSession(player);
+            if (session != null) {
+                sm.refreshOffhand(session);
+            }
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.autopickup.listeners;
+
+import com.autopickup.AutoPickupPlugin;
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+/**
+ * Feeds tick durations into the {@link com.autopickup.managers.LoadManager}.
+ */
+public class ServerTickListener implements Listener {
+
+    private final AutoPickupPlugin plugin;
+
+    public ServerTickListener(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        plugin.getLoadManager().recordTick(event.getTickDuration());
+    }
+}
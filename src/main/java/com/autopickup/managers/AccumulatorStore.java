@@ -0,0 +1,181 @@
+package com.autopickup.managers;
+
+import org.bukkit.Material;
+
+import java.util.Arrays;
+
+/**
+ * Converter accumulators stored as primitive int rows, indexed by player
+ * session id and recipe slot (see {@link RecipeSnapshot#getSlot(Material)}).
+ * Only accessed from the main thread.
+ * <p>
+ * Amounts of inputs that have no recipe (any more) are parked by material
+ * instead of dropped, so they are still saved, and come back if a recipe for
+ * the input is added again.
+ */
+public class AccumulatorStore {
+
+    private static final int[] EMPTY_ROW = new int[0];
+    private static final Material[] MATERIALS = Material.values();
+
+    private int[][] rows = new int[64][];
+    // Parked amounts by session id and material ordinal, null when there are none
+    private int[][] parked = new int[64][];
+    private RecipeSnapshot layout;
+
+    AccumulatorStore(RecipeSnapshot layout) {
+        this.layout = layout;
+    }
+
+    // ===== Packed add result =====
+
+    /**
+     * Number of completed conversions from an {@link #addAndConvert} result.
+     */
+    public static int conversions(long result) {
+        return (int) (result >>> 32);
+    }
+
+    /**
+     * Amount left in the accumulator from an {@link #addAndConvert} result.
+     */
+    public static int remainder(long result) {
+        return (int) result;
+    }
+
+    private static long pack(int conversions, int remainder) {
+        return ((long) conversions << 32) | (remainder & 0xFFFFFFFFL);
+    }
+
+    // ===== Operations =====
+
+    /**
+     * Add to an accumulator and take out every completed conversion in one step.
+     * The result packs the number of conversions and the remainder left behind,
+     * read them with {@link #conversions(long)} and {@link #remainder(long)}.
+     */
+    long addAndConvert(int sessionId, int slot, int amount, int inputRequired) {
+        int[] row = row(sessionId);
+        int accumulated = row[slot] + amount;
+        int conversions = accumulated / inputRequired;
+        int remainder = accumulated - conversions * inputRequired;
+        row[slot] = remainder;
+        return pack(conversions, remainder);
+    }
+
+    int get(int sessionId, int slot) {
+        int[] row = sessionId < rows.length ? rows[sessionId] : null;
+        return row != null ? row[slot] : 0;
+    }
+
+    void set(int sessionId, int slot, int amount) {
+        row(sessionId)[slot] = Math.max(0, amount);
+    }
+
+    void add(int sessionId, int slot, int amount) {
+        int[] row = row(sessionId);
+        row[slot] = Math.max(0, row[slot] + amount);
+    }
+
+    void clear(int sessionId) {
+        if (sessionId < rows.length) {
+            rows[sessionId] = null;
+            parked[sessionId] = null;
+        }
+    }
+
+    /**
+     * Keep an amount of an input that has no recipe slot in the current layout.
+     */
+    void park(int sessionId, Material material, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        row(sessionId);
+        int[] amounts = parked[sessionId];
+        if (amounts == null) {
+            amounts = new int[MATERIALS.length];
+            parked[sessionId] = amounts;
+        }
+        amounts[material.ordinal()] = (int) Math.min(Integer.MAX_VALUE, (long) amounts[material.ordinal()] + amount);
+    }
+
+    /**
+     * Parked amounts of a session by material ordinal, or null if there are none.
+     * Must not be modified.
+     */
+    int[] getParked(int sessionId) {
+        return sessionId < parked.length ? parked[sessionId] : null;
+    }
+
+    /**
+     * Copy a session's accumulators into the given array (indexed by slot) without
+     * allocating. Returns the number of slots written, or -1 if the array is too small.
+     */
+    int copyRow(int sessionId, int[] target) {
+        int slots = layout.getSlotCount();
+        if (target.length < slots) {
+            return -1;
+        }
+        int[] row = sessionId < rows.length ? rows[sessionId] : null;
+        if (row == null) {
+            Arrays.fill(target, 0, slots, 0);
+        } else {
+            System.arraycopy(row, 0, target, 0, slots);
+        }
+        return slots;
+    }
+
+    /**
+     * Move all rows over to a new slot layout. Amounts of inputs that lost
+     * their recipe are parked, parked amounts of inputs that got one back
+     * return to their slot.
+     */
+    void setLayout(RecipeSnapshot newLayout) {
+        RecipeSnapshot oldLayout = layout;
+        layout = newLayout;
+
+        int oldSlots = oldLayout.getSlotCount();
+        for (int id = 0; id < rows.length; id++) {
+            int[] oldRow = rows[id];
+            if (oldRow == null) {
+                continue;
+            }
+
+            int[] newRow = newLayout.getSlotCount() == 0 ? EMPTY_ROW : new int[newLayout.getSlotCount()];
+            rows[id] = newRow;
+            for (int slot = 0; slot < oldSlots; slot++) {
+                Material input = oldLayout.getSlotInput(slot);
+                int newSlot = newLayout.getSlot(input);
+                if (newSlot >= 0) {
+                    newRow[newSlot] = oldRow[slot];
+                } else {
+                    park(id, input, oldRow[slot]);
+                }
+            }
+
+            int[] amounts = parked[id];
+            if (amounts != null) {
+                for (int slot = 0; slot < newRow.length; slot++) {
+                    int ordinal = newLayout.getSlotInput(slot).ordinal();
+                    newRow[slot] += amounts[ordinal];
+                    amounts[ordinal] = 0;
+                }
+            }
+        }
+    }
+
+    private int[] row(int sessionId) {
+        if (sessionId >= rows.length) {
+            int capacity = Math.max(sessionId + 1, rows.length * 2);
+            rows = Arrays.copyOf(rows, capacity);
+            parked = Arrays.copyOf(parked, capacity);
+        }
+        int[] row = rows[sessionId];
+        if (row == null) {
+            row = new int[layout.getSlotCount()];
+            rows[sessionId] = row;
+        }
+        return row;
+    }
+}
@@ -0,0 +1,222 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+import com.autopickup.utils.ConfigUtils;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Material;
+
+import java.util.Arrays;
+
+/**
+ * Coalesces converter feedback so each player gets at most one action bar per
+ * interval. Updates inside the interval replace the pending one (conversions
+ * are summed), and the pending bar is sent by {@link #flush()} once the interval
+ * has passed. All state lives in arrays indexed by session id.
+ */
+public class ActionBarManager {
+
+    private static final byte NONE = 0;
+    private static final byte PROGRESS = 1;
+    private static final byte CONVERTED = 2;
+
+    // Static parts of the messages, built once
+    private static final Component PROGRESS_PREFIX = Component.text("Converter: ", NamedTextColor.GRAY);
+    private static final Component CONVERTED_PREFIX = Component.text("Converted! ", NamedTextColor.GREEN);
+    private static final Component[] MATERIAL_NAMES = new Component[Material.values().length];
+
+    private final AutoPickupPlugin plugin;
+    private int intervalTicks = 1;
+
+    private PlayerSession[] sessions = new PlayerSession[64];
+    private byte[] pendingType = new byte[64];
+    private Material[] pendingInput = new Material[64];
+    private Material[] pendingMaterial = new Material[64];
+    private int[] pendingAmount = new int[64];
+    private int[] pendingRemainder = new int[64];
+    private int[] pendingRequired = new int[64];
+    private int[] lastSentTick = new int[64];
+    private boolean[] queued = new boolean[64];
+
+    // Session ids with a pending bar, each listed at most once
+    private int[] pendingIds = new int[16];
+    private int pendingCount = 0;
+
+    private long sentCount = 0;
+    private long suppressedCount = 0;
+
+    public ActionBarManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        intervalTicks = Math.max(1, plugin.getConfig().getInt("ore-converter.action-bar-interval", 5));
+    }
+
+    /**
+     * Show accumulator progress towards the next conversion.
+     */
+    public void progress(PlayerSession session, Material input, int accumulated, int required) {
+        if (!plugin.getLoadManager().allowsCosmetics()) {
+            // Shed under load
+            suppressedCount++;
+            return;
+        }
+        int id = prepare(session);
+        if (pendingType[id] == CONVERTED && pendingInput[id] == input) {
+            // A finished conversion has not been shown yet - keep it, just update the remainder
+            pendingRemainder[id] = accumulated;
+        } else {
+            pendingType[id] = PROGRESS;
+            pendingInput[id] = input;
+            pendingMaterial[id] = input;
+            pendingRemainder[id] = accumulated;
+            pendingRequired[id] = required;
+        }
+        submit(id);
+    }
+
+    /**
+     * Show items produced by the converter. Conversions to the same output within
+     * one interval are added up.
+     */
+    public void converted(PlayerSession session, Material input, Material output, int amount, int remainder) {
+        if (!plugin.getLoadManager().allowsCosmetics()) {
+            // Shed under load
+            suppressedCount++;
+            return;
+        }
+        int id = prepare(session);
+        if (pendingType[id] == CONVERTED && pendingInput[id] == input && pendingMaterial[id] == output) {
+            pendingAmount[id] += amount;
+        } else {
+            pendingType[id] = CONVERTED;
+            pendingInput[id] = input;
+            pendingMaterial[id] = output;
+            pendingAmount[id] = amount;
+        }
+        pendingRemainder[id] = remainder;
+        submit(id);
+    }
+
+    /**
+     * Send pending bars whose interval has passed. Called every tick.
+     */
+    public void flush() {
+        int tick = plugin.getServer().getCurrentTick();
+        int kept = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            int id = pendingIds[i];
+            PlayerSession session = sessions[id];
+            if (session == null || plugin.getSessionManager().getSession(id) != session) {
+                // Player left
+                clear(id);
+                queued[id] = false;
+            } else if (pendingType[id] == NONE) {
+                queued[id] = false;
+            } else if (tick - lastSentTick[id] >= intervalTicks) {
+                send(id, tick);
+                queued[id] = false;
+            } else {
+                pendingIds[kept++] = id;
+            }
+        }
+        pendingCount = kept;
+    }
+
+    private int prepare(PlayerSession session) {
+        int id = session.getId();
+        if (id >= sessions.length) {
+            int length = Math.max(id + 1, sessions.length * 2);
+            sessions = Arrays.copyOf(sessions, length);
+            pendingType = Arrays.copyOf(pendingType, length);
+            pendingInput = Arrays.copyOf(pendingInput, length);
+            pendingMaterial = Arrays.copyOf(pendingMaterial, length);
+            pendingAmount = Arrays.copyOf(pendingAmount, length);
+            pendingRemainder = Arrays.copyOf(pendingRemainder, length);
+            pendingRequired = Arrays.copyOf(pendingRequired, length);
+            lastSentTick = Arrays.copyOf(lastSentTick, length);
+            queued = Arrays.copyOf(queued, length);
+        }
+        if (sessions[id] != session) {
+            // Id was reused by a new session
+            clear(id);
+            sessions[id] = session;
+            lastSentTick[id] = Integer.MIN_VALUE / 2;
+        } else if (pendingType[id] != NONE) {
+            // Replaces a bar that was never sent
+            suppressedCount++;
+        }
+        return id;
+    }
+
+    private void submit(int id) {
+        int tick = plugin.getServer().getCurrentTick();
+        if (tick - lastSentTick[id] >= intervalTicks) {
+            // Nothing sent recently - show it right away
+            send(id, tick);
+            return;
+        }
+        if (!queued[id]) {
+            if (pendingCount == pendingIds.length) {
+                pendingIds = Arrays.copyOf(pendingIds, pendingCount * 2);
+            }
+            pendingIds[pendingCount++] = id;
+            queued[id] = true;
+        }
+    }
+
+    private void send(int id, int tick) {
+        Component message;
+        if (pendingType[id] == CONVERTED) {
+            message = CONVERTED_PREFIX
+                    .append(Component.text("+" + pendingAmount[id] + " ", NamedTextColor.YELLOW))
+                    .append(materialName(pendingMaterial[id]));
+            if (pendingRemainder[id] > 0) {
+                message = message.append(Component.text(" (" + pendingRemainder[id] + " remaining)", NamedTextColor.GRAY));
+            }
+        } else {
+            message = PROGRESS_PREFIX
+                    .append(Component.text(pendingRemainder[id], NamedTextColor.YELLOW))
+                    .append(Component.text("/" + pendingRequired[id] + " ", NamedTextColor.GOLD))
+                    .append(materialName(pendingMaterial[id]));
+        }
+        sessions[id].getPlayer().sendActionBar(message);
+        lastSentTick[id] = tick;
+        pendingType[id] = NONE;
+        pendingInput[id] = null;
+        pendingMaterial[id] = null;
+        sentCount++;
+    }
+
+    private void clear(int id) {
+        sessions[id] = null;
+        pendingType[id] = NONE;
+        pendingInput[id] = null;
+        pendingMaterial[id] = null;
+    }
+
+    private static Component materialName(Material material) {
+        Component name = MATERIAL_NAMES[material.ordinal()];
+        if (name == null) {
+            name = Component.text(ConfigUtils.formatMaterialName(material), NamedTextColor.AQUA);
+            MATERIAL_NAMES[material.ordinal()] = name;
+        }
+        return name;
+    }
+
+    // ===== Statistics =====
+
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * Number of updates that were replaced by a newer one before being sent,
+     * or skipped because of server load.
+     */
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+}
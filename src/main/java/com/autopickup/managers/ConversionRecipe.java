@@ -12,6 +12,7 @@ public class ConversionRecipe {
     private int inputAmount;
     private ItemStack outputItemStack; // Store full ItemStack for custom items
     private int outputAmount;
+    private int priority; // Higher wins when several recipes share an input
 
     public ConversionRecipe(Material inputItem, int inputAmount, ItemStack outputItemStack, int outputAmount) {
         this.inputItem = inputItem;
@@ -87,6 +88,14 @@ public class ConversionRecipe {
         this.outputAmount = Math.max(1, outputAmount); // Removed 64 max limit
     }
 
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
     /**
      * Calculate the number of conversions possible for a given item amount.
      */
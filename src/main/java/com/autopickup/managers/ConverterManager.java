@@ -1,10 +1,14 @@
 package com.autopickup.managers;
 
 import com.autopickup.AutoPickupPlugin;
+import com.autopickup.storage.CounterStorage;
+import com.autopickup.storage.MaterialPalette;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.IllegalPluginAccessException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -16,14 +20,22 @@ public class ConverterManager {
     private final AutoPickupPlugin plugin;
     private final List<ConversionRecipe> recipes = new ArrayList<>();
     
-    // Accumulator system - tracks mined items per player per material
-    private final Map<UUID, Map<Material, Integer>> playerAccumulators = new HashMap<>();
+    // Published copy-on-write whenever recipes change; readers never copy
+    private volatile RecipeSnapshot snapshot = new RecipeSnapshot(0, List.of());
+    private long snapshotVersion = 0;
+    
+    // Accumulator system - tracks mined items per player session per recipe slot
+    private final AccumulatorStore accumulators = new AccumulatorStore(snapshot);
+    private final CounterStorage accumulatorStorage;
     
     // Default output material for backward compatibility
     private static final Material DEFAULT_OUTPUT_MATERIAL = Material.AMETHYST_SHARD;
+    private static final Material[] MATERIALS = Material.values();
 
     public ConverterManager(AutoPickupPlugin plugin) {
         this.plugin = plugin;
+        this.accumulatorStorage = new CounterStorage(plugin.getDataFolder().toPath().resolve("accumulators"),
+                'A', "accumulators", plugin.getIoExecutor(), plugin.getLogger());
         loadConfig();
     }
 
@@ -44,9 +56,18 @@ public class ConverterManager {
             plugin.getLogger().info("No recipes found, added default recipe");
         }
         
+        publishSnapshot();
         plugin.getLogger().info("Loaded " + recipes.size() + " ore converter recipe(s)");
     }
     
+    /**
+     * Build a new immutable snapshot from the working recipe list and publish it.
+     */
+    private void publishSnapshot() {
+        snapshot = new RecipeSnapshot(++snapshotVersion, recipes);
+        accumulators.setLayout(snapshot);
+    }
+    
     private void loadRecipesFromList() {
         List<Map<?, ?>> recipeList = plugin.getConfig().getMapList("ore-converter.recipes");
         
@@ -74,7 +95,12 @@ public class ConverterManager {
                     outputItemStack = new ItemStack(outputItem);
                 }
                 
-                recipes.add(new ConversionRecipe(inputItem, inputAmount, outputItemStack, outputAmount));
+                ConversionRecipe recipe = new ConversionRecipe(inputItem, inputAmount, outputItemStack, outputAmount);
+                Object priorityObj = recipeMap.get("priority");
+                if (priorityObj instanceof Number) {
+                    recipe.setPriority(((Number) priorityObj).intValue());
+                }
+                recipes.add(recipe);
             } catch (Exception e) {
                 plugin.getLogger().warning("Failed to load a recipe from config: " + e.getMessage());
             }
@@ -121,6 +147,9 @@ public class ConverterManager {
             recipeMap.put("input-item", recipe.getInputItem().name());
             recipeMap.put("input-amount", recipe.getInputAmount());
             recipeMap.put("output-amount", recipe.getOutputAmount());
+            if (recipe.getPriority() != 0) {
+                recipeMap.put("priority", recipe.getPriority());
+            }
             // Save full ItemStack (serialized)
             recipeMap.put("output-itemstack", recipe.getOutputItemStack().serialize());
             // Also save output-item for backward compatibility/readability
@@ -135,88 +164,247 @@ public class ConverterManager {
     
     // ===== Accumulator System =====
     
+    /**
+     * Add a drop to a session's accumulator and take out all completed conversions
+     * in one step. Read the packed result with {@link AccumulatorStore#conversions(long)}
+     * and {@link AccumulatorStore#remainder(long)}.
+     */
+    public long addToAccumulator(PlayerSession session, int slot, int amount, int inputRequired) {
+        session.setAccumulatorsDirty(true);
+        return accumulators.addAndConvert(session.getId(), slot, amount, inputRequired);
+    }
+    
+    /**
+     * Copy a session's accumulators (indexed by slot of the current snapshot) into
+     * the given array without allocating. Returns the number of slots written, or -1
+     * if the array is smaller than {@link RecipeSnapshot#getSlotCount()}.
+     */
+    public int copyAccumulators(PlayerSession session, int[] target) {
+        return accumulators.copyRow(session.getId(), target);
+    }
+    
     /**
      * Add items to a player's accumulator for a specific material.
      */
     public void addToAccumulator(UUID uuid, Material material, int amount) {
-        playerAccumulators.computeIfAbsent(uuid, k -> new HashMap<>());
-        Map<Material, Integer> playerAcc = playerAccumulators.get(uuid);
-        int current = playerAcc.getOrDefault(material, 0);
-        playerAcc.put(material, current + amount);
+        PlayerSession session = plugin.getSessionManager().getSession(uuid);
+        int slot = snapshot.getSlot(material);
+        if (session != null && slot >= 0) {
+            accumulators.add(session.getId(), slot, amount);
+            session.setAccumulatorsDirty(true);
+        }
     }
     
     /**
      * Get the accumulated amount for a player and material.
      */
     public int getAccumulatedAmount(UUID uuid, Material material) {
-        Map<Material, Integer> playerAcc = playerAccumulators.get(uuid);
-        if (playerAcc == null) return 0;
-        return playerAcc.getOrDefault(material, 0);
+        PlayerSession session = plugin.getSessionManager().getSession(uuid);
+        int slot = snapshot.getSlot(material);
+        if (session == null || slot < 0) return 0;
+        return accumulators.get(session.getId(), slot);
     }
     
     /**
      * Consume items from a player's accumulator.
      */
     public void consumeFromAccumulator(UUID uuid, Material material, int amount) {
-        Map<Material, Integer> playerAcc = playerAccumulators.get(uuid);
-        if (playerAcc != null) {
-            int current = playerAcc.getOrDefault(material, 0);
-            playerAcc.put(material, Math.max(0, current - amount));
-        }
+        addToAccumulator(uuid, material, -amount);
     }
     
     /**
      * Set the accumulator value directly (used for setting remainder after conversion).
      */
     public void setAccumulator(UUID uuid, Material material, int amount) {
-        playerAccumulators.computeIfAbsent(uuid, k -> new HashMap<>());
-        Map<Material, Integer> playerAcc = playerAccumulators.get(uuid);
-        playerAcc.put(material, Math.max(0, amount));
+        PlayerSession session = plugin.getSessionManager().getSession(uuid);
+        int slot = snapshot.getSlot(material);
+        if (session != null && slot >= 0) {
+            accumulators.set(session.getId(), slot, amount);
+            session.setAccumulatorsDirty(true);
+        }
     }
     
     /**
      * Clear all accumulators for a player.
      */
     public void clearAccumulators(UUID uuid) {
-        playerAccumulators.remove(uuid);
+        PlayerSession session = plugin.getSessionManager().getSession(uuid);
+        if (session != null) {
+            accumulators.clear(session.getId());
+            session.setAccumulatorsDirty(true);
+        }
     }
     
     /**
      * Clear a specific material accumulator for a player.
      */
     public void clearAccumulator(UUID uuid, Material material) {
-        Map<Material, Integer> playerAcc = playerAccumulators.get(uuid);
-        if (playerAcc != null) {
-            playerAcc.remove(material);
-        }
+        setAccumulator(uuid, material, 0);
     }
     
     /**
-     * Get all accumulated materials for a player.
+     * Get all accumulated materials for a player. Allocates a new map, use
+     * {@link #copyAccumulators(PlayerSession, int[])} on hot paths.
      */
     public Map<Material, Integer> getPlayerAccumulators(UUID uuid) {
-        Map<Material, Integer> playerAcc = playerAccumulators.get(uuid);
-        if (playerAcc == null) return new HashMap<>();
-        return new HashMap<>(playerAcc);
+        Map<Material, Integer> result = new HashMap<>();
+        PlayerSession session = plugin.getSessionManager().getSession(uuid);
+        if (session == null) return result;
+        
+        RecipeSnapshot current = snapshot;
+        for (int slot = 0; slot < current.getSlotCount(); slot++) {
+            int amount = accumulators.get(session.getId(), slot);
+            if (amount > 0) {
+                result.put(current.getSlotInput(slot), amount);
+            }
+        }
+        return result;
+    }
+    
+    // ===== Accumulator Persistence =====
+    
+    /**
+     * Load a player's stored accumulators off the main thread and merge them into
+     * the session once read. Progress made in the meantime is kept. If the stored
+     * file can't be read the session is never marked loaded, so its progress is
+     * merged into storage on quit instead of replacing the file.
+     */
+    public void loadAccumulators(PlayerSession session) {
+        accumulatorStorage.load(session.getUniqueId()).whenComplete((entries, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Could not load accumulators of " + session.getUniqueId() + ": " + error.getMessage());
+                return;
+            }
+            try {
+                plugin.getServer().getScheduler().runTask(plugin, () -> applyLoadedAccumulators(session, entries));
+            } catch (IllegalPluginAccessException e) {
+                // Plugin is disabling - the session is saved by onDisable
+            }
+        });
+    }
+    
+    private void applyLoadedAccumulators(PlayerSession session, CounterStorage.Entries entries) {
+        // Player already left - their progress was merged into storage on quit
+        if (plugin.getSessionManager().getSession(session.getUniqueId()) != session) {
+            return;
+        }
+        
+        if (entries.size() > 0) {
+            MaterialPalette palette = accumulatorStorage.getPalette();
+            for (int i = 0; i < entries.size(); i++) {
+                Material material = palette.get(entries.ids()[i]);
+                if (material == null) {
+                    continue;
+                }
+                int amount = (int) Math.min(Integer.MAX_VALUE, entries.amounts()[i]);
+                int slot = snapshot.getSlot(material);
+                if (slot >= 0) {
+                    accumulators.add(session.getId(), slot, amount);
+                } else {
+                    // No recipe for it right now - kept so it is saved again
+                    accumulators.park(session.getId(), material, amount);
+                }
+            }
+        }
+        session.setAccumulatorsLoaded(true);
+    }
+    
+    /**
+     * Queue a write of a player's accumulators if they changed since the last save.
+     */
+    public void saveAccumulators(PlayerSession session) {
+        if (!session.isAccumulatorsDirty()) {
+            return;
+        }
+        
+        RecipeSnapshot current = snapshot;
+        int slots = current.getSlotCount();
+        int[] ids = new int[slots];
+        long[] amounts = new long[slots];
+        int size = 0;
+        MaterialPalette palette = accumulatorStorage.getPalette();
+        for (int slot = 0; slot < slots; slot++) {
+            int amount = accumulators.get(session.getId(), slot);
+            if (amount > 0) {
+                ids[size] = palette.idOf(current.getSlotInput(slot));
+                amounts[size++] = amount;
+            }
+        }
+        // Progress on inputs whose recipe was removed is saved as well
+        int[] parked = accumulators.getParked(session.getId());
+        if (parked != null) {
+            for (int ordinal = 0; ordinal < parked.length; ordinal++) {
+                if (parked[ordinal] > 0) {
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, size * 2 + 1);
+                        amounts = Arrays.copyOf(amounts, size * 2 + 1);
+                    }
+                    ids[size] = palette.idOf(MATERIALS[ordinal]);
+                    amounts[size++] = parked[ordinal];
+                }
+            }
+        }
+        
+        if (session.isAccumulatorsLoaded()) {
+            accumulatorStorage.save(session.getUniqueId(), ids, amounts, size);
+        } else if (size > 0) {
+            // Stored values were never merged in, so add on top of them instead of replacing
+            accumulatorStorage.merge(session.getUniqueId(), ids, amounts, size);
+        }
+        session.setAccumulatorsDirty(false);
+    }
+    
+    /**
+     * Periodic flush: save changed accumulators of every loaded session.
+     * Sessions still loading are saved when they quit.
+     */
+    public void saveDirtyAccumulators() {
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            if (session.isAccumulatorsLoaded()) {
+                saveAccumulators(session);
+            }
+        }
+    }
+    
+    /**
+     * Save and drop a player's accumulators when they leave.
+     */
+    public void unloadAccumulators(PlayerSession session) {
+        saveAccumulators(session);
+        accumulators.clear(session.getId());
+    }
+    
+    /**
+     * Save the accumulators of every online player (used on disable).
+     */
+    public void saveAllAccumulators() {
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            saveAccumulators(session);
+        }
     }
     
     // ===== Recipe Management =====
     
     /**
-     * Get all conversion recipes.
+     * Get the current recipe snapshot. The snapshot is immutable, hold on to it
+     * for a consistent view across several lookups.
+     */
+    public RecipeSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Get all conversion recipes (read-only).
      */
     public List<ConversionRecipe> getRecipes() {
-        return new ArrayList<>(recipes);
+        return snapshot.getRecipes();
     }
     
     /**
      * Get a recipe by index.
      */
     public ConversionRecipe getRecipe(int index) {
-        if (index >= 0 && index < recipes.size()) {
-            return recipes.get(index);
-        }
-        return null;
+        return snapshot.getRecipe(index);
     }
     
     /**
@@ -224,6 +412,7 @@ public class ConverterManager {
      */
     public boolean addRecipe(ConversionRecipe recipe) {
         recipes.add(recipe);
+        publishSnapshot();
         saveRecipes();
         return true;
     }
@@ -234,6 +423,7 @@ public class ConverterManager {
     public boolean updateRecipe(int index, ConversionRecipe recipe) {
         if (index >= 0 && index < recipes.size()) {
             recipes.set(index, recipe);
+            publishSnapshot();
             saveRecipes();
             return true;
         }
@@ -246,6 +436,7 @@ public class ConverterManager {
     public boolean removeRecipe(int index) {
         if (index >= 0 && index < recipes.size()) {
             recipes.remove(index);
+            publishSnapshot();
             saveRecipes();
             return true;
         }
@@ -256,19 +447,14 @@ public class ConverterManager {
      * Get the number of recipes.
      */
     public int getRecipeCount() {
-        return recipes.size();
+        return snapshot.size();
     }
     
     /**
-     * Find a recipe that matches the given item type.
+     * Find the highest priority recipe that matches the given item type.
      */
     public ConversionRecipe findRecipeForItem(Material itemType) {
-        for (ConversionRecipe recipe : recipes) {
-            if (recipe.getInputItem() == itemType) {
-                return recipe;
-            }
-        }
-        return null;
+        return snapshot.findRecipe(itemType);
     }
 
     // ===== Legacy methods for backward compatibility =====
@@ -0,0 +1,81 @@
+package com.autopickup.managers;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Histogram of dropped items by material, used to collect the drops of many
+ * blocks (e.g. an explosion) before they go through the pickup pipeline once
+ * per material. Items carrying meta cannot be counted and are kept as they are.
+ * <p>
+ * Meant to be reused: {@link #drain()} returns the contents and resets the batch.
+ */
+public class DropBatch {
+
+    private static final int MATERIAL_COUNT = Material.values().length;
+    private static final Material[] MATERIALS = Material.values();
+
+    private final int[] counts = new int[MATERIAL_COUNT];
+    // Ordinals with a non-zero count, in first-seen order
+    private int[] touched = new int[16];
+    private int touchedCount = 0;
+    private final List<ItemStack> special = new ArrayList<>();
+
+    public void add(ItemStack item) {
+        if (item.hasItemMeta()) {
+            special.add(item);
+            return;
+        }
+        add(item.getType(), item.getAmount());
+    }
+
+    public void add(Material material, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        int ordinal = material.ordinal();
+        if (counts[ordinal] == 0) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = ordinal;
+        }
+        counts[ordinal] += amount;
+    }
+
+    public boolean isEmpty() {
+        return touchedCount == 0 && special.isEmpty();
+    }
+
+    /**
+     * Number of distinct materials plus items with meta in the batch.
+     */
+    public int size() {
+        return touchedCount + special.size();
+    }
+
+    /**
+     * The counted materials as stacks of at most their max stack size, followed
+     * by the items with meta. Resets the batch.
+     */
+    public List<ItemStack> drain() {
+        List<ItemStack> items = new ArrayList<>(size());
+        for (int i = 0; i < touchedCount; i++) {
+            int ordinal = touched[i];
+            Material material = MATERIALS[ordinal];
+            int max = Math.max(1, material.getMaxStackSize());
+            for (int left = counts[ordinal]; left > 0; left -= max) {
+                items.add(new ItemStack(material, Math.min(left, max)));
+            }
+            counts[ordinal] = 0;
+        }
+        touchedCount = 0;
+        items.addAll(special);
+        special.clear();
+        return items;
+    }
+}
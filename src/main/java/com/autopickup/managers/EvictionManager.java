@@ -0,0 +1,134 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+import com.autopickup.utils.InventoryUtils;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Priority mode for full inventories: every material has a value, and an item
+ * that does not fit replaces the least valuable stack worth less than itself.
+ * The replaced stack becomes the leftover instead, so a diamond is kept at the
+ * cost of cobblestone.
+ * <p>
+ * Only materials listed in the config are ever replaced; other items, custom
+ * items and (by default) the hotbar are left alone. The least valuable slot is
+ * found through the player's {@link SlotIndex}.
+ */
+public class EvictionManager {
+
+    // Value of materials that are never replaced
+    private static final int PROTECTED = Integer.MAX_VALUE;
+    private static final int MATERIAL_COUNT = Material.values().length;
+
+    private final AutoPickupPlugin plugin;
+    private boolean enabled;
+    private int firstSlot;
+    // Value by material ordinal of stacks in the inventory, PROTECTED if not listed
+    private final int[] slotValues = new int[MATERIAL_COUNT];
+    // Value by material ordinal of items looking for room, the default if not listed
+    private final int[] itemValues = new int[MATERIAL_COUNT];
+
+    // Statistics
+    private long replacedStacks = 0;
+
+    public EvictionManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        enabled = plugin.getConfig().getBoolean("auto-pickup.priority.enabled", false);
+        firstSlot = plugin.getConfig().getBoolean("auto-pickup.priority.protect-hotbar", true) ? 9 : 0;
+        int defaultValue = plugin.getConfig().getInt("auto-pickup.priority.default-value", 10);
+
+        Arrays.fill(slotValues, PROTECTED);
+        Arrays.fill(itemValues, defaultValue);
+        ConfigurationSection values = plugin.getConfig().getConfigurationSection("auto-pickup.priority.values");
+        if (values != null) {
+            for (String name : values.getKeys(false)) {
+                Material material = Material.matchMaterial(name);
+                if (material == null) {
+                    plugin.getLogger().warning("Unknown material in auto-pickup.priority.values: " + name);
+                    continue;
+                }
+                // Keep PROTECTED free for unlisted materials
+                int value = Math.min(PROTECTED - 1, Math.max(SlotIndex.EMPTY_VALUE + 1, values.getInt(name)));
+                slotValues[material.ordinal()] = value;
+                itemValues[material.ordinal()] = value;
+            }
+        }
+
+        // Existing indexes were built with the old values
+        if (plugin.getSessionManager() != null) {
+            for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+                session.invalidateSlotIndex();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Make room for items that did not fit by replacing less valuable stacks.
+     *
+     * @return what is still left over: items nothing could be replaced for, and the replaced stacks
+     */
+    public List<ItemStack> evict(PlayerSession session, Collection<ItemStack> leftovers) {
+        List<ItemStack> remaining = new ArrayList<>(leftovers.size());
+        if (!enabled) {
+            remaining.addAll(leftovers);
+            return remaining;
+        }
+
+        PlayerInventory inventory = session.getPlayer().getInventory();
+        SlotIndex index = session.getSlotIndex();
+        if (!index.isValid()) {
+            index.rebuild(inventory, firstSlot, slotValues, PROTECTED);
+        }
+
+        for (ItemStack item : leftovers) {
+            int ordinal = item.getType().ordinal();
+            int value = itemValues[ordinal];
+            int amount = item.getAmount();
+            int max = Math.max(1, item.getMaxStackSize());
+            int slot;
+            while (amount > 0 && (slot = index.pollBelow(inventory, value, firstSlot, slotValues, PROTECTED)) >= 0) {
+                ItemStack replaced = inventory.getItem(slot);
+                ItemStack placed = item.clone();
+                placed.setAmount(Math.min(amount, max));
+                amount -= placed.getAmount();
+                inventory.setItem(slot, placed);
+
+                if (slotValues[ordinal] != PROTECTED && !InventoryUtils.hasCustomData(placed)) {
+                    index.push(slot, ordinal, slotValues[ordinal]);
+                }
+                if (replaced != null && !replaced.getType().isAir()) {
+                    remaining.add(replaced);
+                    replacedStacks++;
+                }
+            }
+            if (amount > 0) {
+                ItemStack rest = item.clone();
+                rest.setAmount(amount);
+                remaining.add(rest);
+            }
+        }
+        return remaining;
+    }
+
+    // ===== Statistics =====
+
+    public long getReplacedStacks() {
+        return replacedStacks;
+    }
+}
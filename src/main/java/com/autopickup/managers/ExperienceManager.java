@@ -0,0 +1,95 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+
+import java.util.Arrays;
+
+/**
+ * Collects experience from auto-pickup per session and hands it out in one
+ * {@code giveExp} call per player and delivery window, instead of one per block.
+ */
+public class ExperienceManager {
+
+    private final AutoPickupPlugin plugin;
+    private boolean applyMending;
+
+    private PlayerSession[] sessions = new PlayerSession[64];
+    private int[] pendingExp = new int[64];
+
+    // Session ids with pending experience, each listed at most once
+    private int[] pendingIds = new int[16];
+    private int pendingCount = 0;
+
+    public ExperienceManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        applyMending = plugin.getConfig().getBoolean("experience.apply-mending", false);
+    }
+
+    /**
+     * Add experience for a player, delivered with the next flush.
+     */
+    public void add(PlayerSession session, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+
+        int id = session.getId();
+        if (id >= sessions.length) {
+            int length = Math.max(id + 1, sessions.length * 2);
+            sessions = Arrays.copyOf(sessions, length);
+            pendingExp = Arrays.copyOf(pendingExp, length);
+        }
+
+        if (sessions[id] != session) {
+            // Free id, or one left behind by a player that already quit
+            sessions[id] = session;
+            pendingExp[id] = 0;
+        }
+        if (pendingExp[id] == 0) {
+            if (pendingCount == pendingIds.length) {
+                pendingIds = Arrays.copyOf(pendingIds, pendingCount * 2);
+            }
+            pendingIds[pendingCount++] = id;
+        }
+        // Saturate instead of overflowing
+        pendingExp[id] = (int) Math.min(Integer.MAX_VALUE, (long) pendingExp[id] + amount);
+    }
+
+    /**
+     * Deliver all pending experience.
+     */
+    public void flush() {
+        for (int i = 0; i < pendingCount; i++) {
+            int id = pendingIds[i];
+            PlayerSession session = sessions[id];
+            if (session != null && pendingExp[id] > 0) {
+                deliver(session, pendingExp[id]);
+            }
+            sessions[id] = null;
+            pendingExp[id] = 0;
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * Deliver a single player's pending experience right away (used on quit).
+     */
+    public void flush(PlayerSession session) {
+        int id = session.getId();
+        if (id < sessions.length && sessions[id] == session && pendingExp[id] > 0) {
+            deliver(session, pendingExp[id]);
+            // Stays in the pending list; the next flush skips it
+            pendingExp[id] = 0;
+        }
+    }
+
+    private void deliver(PlayerSession session, int amount) {
+        if (session.getPlayer().isOnline()) {
+            session.getPlayer().giveExp(amount, applyMending);
+        }
+    }
+}
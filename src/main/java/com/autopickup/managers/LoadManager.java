@@ -0,0 +1,176 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the mean tick duration and picks a {@link LoadTier} from it.
+ * <p>
+ * The tier goes up as soon as the mean crosses a tier's threshold. It only goes
+ * down one tier at a time, after the mean stayed below the threshold minus the
+ * hysteresis margin for the recovery period, so it does not flap around a threshold.
+ */
+public class LoadManager {
+
+    private static final int HISTORY_SIZE = 10;
+
+    /**
+     * A tier change, kept for the load command.
+     */
+    public record Transition(long time, LoadTier from, LoadTier to, double meanMillis) {
+    }
+
+    private final AutoPickupPlugin plugin;
+    private boolean enabled;
+    // Threshold per tier (index 0 = NORMAL is unused)
+    private final double[] thresholds = new double[LoadTier.values().length];
+    private double hysteresis;
+    private int recoverTicks;
+
+    // Ring buffer of recent tick durations
+    private double[] samples = new double[100];
+    private int sampleIndex = 0;
+    private int sampleCount = 0;
+    private double sampleSum = 0;
+
+    private LoadTier tier = LoadTier.NORMAL;
+    private int calmTicks = 0;
+    private long transitionCount = 0;
+    private final Transition[] history = new Transition[HISTORY_SIZE];
+    private int historyIndex = 0;
+
+    public LoadManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        enabled = plugin.getConfig().getBoolean("load-shedding.enabled", true);
+        thresholds[LoadTier.REDUCED.ordinal()] = plugin.getConfig().getDouble("load-shedding.reduced-mspt", 45);
+        thresholds[LoadTier.DEGRADED.ordinal()] = plugin.getConfig().getDouble("load-shedding.degraded-mspt", 50);
+        thresholds[LoadTier.CRITICAL.ordinal()] = plugin.getConfig().getDouble("load-shedding.critical-mspt", 60);
+        hysteresis = Math.max(0, plugin.getConfig().getDouble("load-shedding.hysteresis-mspt", 5));
+        recoverTicks = Math.max(1, plugin.getConfig().getInt("load-shedding.recover-seconds", 10)) * 20;
+
+        int window = Math.max(1, plugin.getConfig().getInt("load-shedding.sample-ticks", 100));
+        if (window != samples.length) {
+            samples = new double[window];
+            sampleIndex = 0;
+            sampleCount = 0;
+            sampleSum = 0;
+        }
+        if (!enabled) {
+            changeTier(LoadTier.NORMAL);
+        }
+    }
+
+    /**
+     * Record the duration of a finished tick. Called at the end of every tick.
+     */
+    public void recordTick(double millis) {
+        if (sampleCount == samples.length) {
+            sampleSum -= samples[sampleIndex];
+        } else {
+            sampleCount++;
+        }
+        samples[sampleIndex] = millis;
+        sampleSum += millis;
+        sampleIndex = (sampleIndex + 1) % samples.length;
+
+        if (enabled) {
+            evaluate();
+        }
+    }
+
+    private void evaluate() {
+        double mean = getMeanTickMillis();
+        LoadTier[] tiers = LoadTier.values();
+
+        // Highest tier whose threshold is exceeded
+        int target = 0;
+        for (int i = tiers.length - 1; i > 0; i--) {
+            if (mean > thresholds[i]) {
+                target = i;
+                break;
+            }
+        }
+
+        int current = tier.ordinal();
+        if (target > current) {
+            calmTicks = 0;
+            changeTier(tiers[target]);
+        } else if (current > 0 && mean < thresholds[current] - hysteresis) {
+            if (++calmTicks >= recoverTicks) {
+                calmTicks = 0;
+                changeTier(tiers[current - 1]);
+            }
+        } else {
+            calmTicks = 0;
+        }
+    }
+
+    private void changeTier(LoadTier newTier) {
+        if (newTier == tier) {
+            return;
+        }
+        Transition transition = new Transition(System.currentTimeMillis(), tier, newTier, getMeanTickMillis());
+        history[historyIndex] = transition;
+        historyIndex = (historyIndex + 1) % HISTORY_SIZE;
+        transitionCount++;
+        tier = newTier;
+        plugin.getLogger().info(String.format("Load tier %s -> %s (mean tick %.1f ms)",
+                transition.from(), transition.to(), transition.meanMillis()));
+    }
+
+    // ===== Queries =====
+
+    public LoadTier getTier() {
+        return tier;
+    }
+
+    /**
+     * Whether cosmetic feedback such as converter action bars should be sent.
+     */
+    public boolean allowsCosmetics() {
+        return tier == LoadTier.NORMAL;
+    }
+
+    /**
+     * Whether drops should be merged into one inventory insert per player and tick.
+     */
+    public boolean coalescesInserts() {
+        return tier == LoadTier.CRITICAL;
+    }
+
+    public double getMeanTickMillis() {
+        return sampleCount == 0 ? 0 : sampleSum / sampleCount;
+    }
+
+    public double getThreshold(LoadTier tier) {
+        return thresholds[tier.ordinal()];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getTransitionCount() {
+        return transitionCount;
+    }
+
+    /**
+     * The most recent tier changes, oldest first.
+     */
+    public List<Transition> getRecentTransitions() {
+        List<Transition> result = new ArrayList<>(HISTORY_SIZE);
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            Transition transition = history[(historyIndex + i) % HISTORY_SIZE];
+            if (transition != null) {
+                result.add(transition);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package com.autopickup.managers;
+
+/**
+ * Load shedding tiers, from normal operation to the most reduced mode.
+ * Each tier includes the reductions of the tiers below it.
+ */
+public enum LoadTier {
+
+    /** Everything runs as configured. */
+    NORMAL(1),
+    /** Cosmetic messages (converter action bars) are not sent. */
+    REDUCED(1),
+    /** Periodic conversion and saves run less often. */
+    DEGRADED(2),
+    /** Drops are inserted once per tick per player, merged into as few stacks as possible. */
+    CRITICAL(4);
+
+    private final int intervalMultiplier;
+
+    LoadTier(int intervalMultiplier) {
+        this.intervalMultiplier = intervalMultiplier;
+    }
+
+    /**
+     * Factor by which periodic tasks stretch their interval in this tier.
+     */
+    public int getIntervalMultiplier() {
+        return intervalMultiplier;
+    }
+}
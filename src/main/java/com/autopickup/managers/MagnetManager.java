@@ -0,0 +1,253 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Pulls item entities lying near players with magnet mode into their inventory,
+ * through the pickup pipeline like any other drop.
+ * <p>
+ * Players are scanned in turns by session id, each at most once per scan
+ * interval. A scan reads the entity lists of the chunks around the player;
+ * those lists are cached for the rest of the tick, so players standing in the
+ * same area share one read per chunk. Every entity looked at counts against a
+ * global per-tick budget, and the rotation continues where it stopped on the
+ * next tick once the budget is used up.
+ * <p>
+ * Only items that fit in the player's inventory are pulled; the rest stays
+ * on the ground instead of ending up as overflow. The free room is read once
+ * per scan, and players with a full inventory are not scanned at all.
+ */
+public class MagnetManager {
+
+    private static final Entity[] NO_ENTITIES = new Entity[0];
+
+    private final AutoPickupPlugin plugin;
+    private boolean enabled;
+    private double radius;
+    private int scanInterval;
+    private int entitiesPerTick;
+
+    // Entity lists of chunks read during the current tick, by world and chunk key
+    private final Map<UUID, Map<Long, Entity[]>> chunkCache = new HashMap<>();
+    private int[] lastScanTick = new int[64];
+    private int cursor = 0;
+    // Room left during the current scan: empty storage slots, and stacks that
+    // are not full with the room left in each (pulled items arrive next tick)
+    private int freeSlots;
+    private final List<ItemStack> partialStacks = new ArrayList<>();
+    private int[] partialRoom = new int[36];
+
+    // Statistics
+    private long scans = 0;
+    private long entitiesVisited = 0;
+    private long itemsPulled = 0;
+
+    public MagnetManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        enabled = plugin.getConfig().getBoolean("magnet.enabled", true);
+        radius = Math.min(32, Math.max(1, plugin.getConfig().getDouble("magnet.radius", 6)));
+        scanInterval = Math.max(1, plugin.getConfig().getInt("magnet.scan-interval", 10));
+        entitiesPerTick = Math.max(1, plugin.getConfig().getInt("magnet.entities-per-tick", 2000));
+    }
+
+    /**
+     * Scan players whose turn it is until the entity budget is used up. Called every tick.
+     */
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+
+        SessionManager sm = plugin.getSessionManager();
+        int capacity = sm.getIdCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        if (capacity > lastScanTick.length) {
+            lastScanTick = Arrays.copyOf(lastScanTick, Math.max(capacity, lastScanTick.length * 2));
+        }
+
+        LoadTier tier = plugin.getLoadManager().getTier();
+        int budget = entitiesPerTick / tier.getIntervalMultiplier();
+        int interval = scanInterval * tier.getIntervalMultiplier();
+        int tick = plugin.getServer().getCurrentTick();
+
+        for (int visited = 0; visited < capacity && budget > 0; visited++) {
+            if (cursor >= capacity) {
+                cursor = 0;
+            }
+            int id = cursor++;
+            PlayerSession session = sm.getSession(id);
+            if (session == null || tick - lastScanTick[id] < interval || !isActive(session)) {
+                continue;
+            }
+            lastScanTick[id] = tick;
+            budget -= scan(session);
+        }
+
+        for (Map<Long, Entity[]> chunks : chunkCache.values()) {
+            chunks.clear();
+        }
+    }
+
+    private boolean isActive(PlayerSession session) {
+        if (!session.canUse() || !session.hasPermission(PlayerSession.PERM_MAGNET)
+                || !session.isAutoPickupEnabled() || !session.hasSetting(PlayerDataManager.PlayerData.FLAG_MAGNET)) {
+            return false;
+        }
+        GameMode mode = session.getPlayer().getGameMode();
+        return mode != GameMode.CREATIVE && mode != GameMode.SPECTATOR && !session.getPlayer().isDead();
+    }
+
+    /**
+     * Pull the items around one player.
+     *
+     * @return the number of entities looked at
+     */
+    private int scan(PlayerSession session) {
+        Player player = session.getPlayer();
+        Location location = player.getLocation();
+        World world = location.getWorld();
+        int rules = session.getRegions().resolve(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        if ((rules & RegionGrid.PICKUP) == 0) {
+            return 0;
+        }
+
+        freeSlots = 0;
+        partialStacks.clear();
+        ItemStack[] contents = player.getInventory().getStorageContents();
+        if (partialRoom.length < contents.length) {
+            partialRoom = new int[contents.length];
+        }
+        for (ItemStack stack : contents) {
+            if (stack == null || stack.getType().isAir()) {
+                freeSlots++;
+            } else if (stack.getAmount() < stack.getMaxStackSize()) {
+                partialRoom[partialStacks.size()] = stack.getMaxStackSize() - stack.getAmount();
+                partialStacks.add(stack);
+            }
+        }
+        if (freeSlots == 0 && partialStacks.isEmpty()) {
+            // Nothing could be pulled
+            return 0;
+        }
+
+        Map<Long, Entity[]> chunks = chunkCache.computeIfAbsent(world.getUID(), uid -> new HashMap<>());
+        double radiusSquared = radius * radius;
+        int visited = 0;
+
+        int minX = (int) Math.floor(location.getX() - radius) >> 4;
+        int maxX = (int) Math.floor(location.getX() + radius) >> 4;
+        int minZ = (int) Math.floor(location.getZ() - radius) >> 4;
+        int maxZ = (int) Math.floor(location.getZ() + radius) >> 4;
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                Entity[] entities = getEntities(world, chunks, cx, cz);
+                visited += entities.length;
+                for (Entity entity : entities) {
+                    if (entity instanceof Item item && item.isValid()
+                            && item.getLocation().distanceSquared(location) <= radiusSquared
+                            && canPull(session, item)) {
+                        pull(session, item, rules);
+                    }
+                }
+            }
+        }
+
+        scans++;
+        entitiesVisited += visited;
+        return visited;
+    }
+
+    private Entity[] getEntities(World world, Map<Long, Entity[]> chunks, int cx, int cz) {
+        long key = ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+        Entity[] entities = chunks.get(key);
+        if (entities == null) {
+            // Never load chunks for this
+            entities = world.isChunkLoaded(cx, cz) ? world.getChunkAt(cx, cz).getEntities() : NO_ENTITIES;
+            chunks.put(key, entities);
+        }
+        return entities;
+    }
+
+    private boolean canPull(PlayerSession session, Item item) {
+        Player player = session.getPlayer();
+        // Items the player threw away or filtered out stay on the ground
+        if (item.getPickupDelay() > 0 || !item.canPlayerPickup() || player.getUniqueId().equals(item.getThrower())
+                || session.isFiltered(item.getItemStack().getType()) || !fits(item.getItemStack())) {
+            return false;
+        }
+        // Let protection plugins veto it like a normal pickup
+        return new EntityPickupItemEvent(player, item, 0).callEvent();
+    }
+
+    /**
+     * Whether an item still fits in the inventory snapshot of this scan,
+     * counting what the scan already pulled.
+     */
+    private boolean fits(ItemStack stack) {
+        if (freeSlots > 0) {
+            return true;
+        }
+        int room = 0;
+        for (int i = 0; i < partialStacks.size(); i++) {
+            if (partialRoom[i] > 0 && partialStacks.get(i).isSimilar(stack)) {
+                room += partialRoom[i];
+            }
+        }
+        return room >= stack.getAmount();
+    }
+
+    private void pull(PlayerSession session, Item item, int rules) {
+        ItemStack stack = item.getItemStack();
+        if (freeSlots > 0) {
+            freeSlots--;
+        } else {
+            int left = stack.getAmount();
+            for (int i = 0; i < partialStacks.size() && left > 0; i++) {
+                if (partialRoom[i] > 0 && partialStacks.get(i).isSimilar(stack)) {
+                    int used = Math.min(left, partialRoom[i]);
+                    partialRoom[i] -= used;
+                    left -= used;
+                }
+            }
+        }
+        // Merged with the player's other drops of this tick
+        plugin.getPickupPipeline().collect(session, List.of(stack), rules);
+        item.remove();
+        itemsPulled++;
+    }
+
+    // ===== Statistics =====
+
+    public long getScans() {
+        return scans;
+    }
+
+    public long getEntitiesVisited() {
+        return entitiesVisited;
+    }
+
+    public long getItemsPulled() {
+        return itemsPulled;
+    }
+}
@@ -0,0 +1,651 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs collected drops through convert, smelt and inventory insertion.
+ * <p>
+ * Every player has a token bucket: each batch of drops (one broken block) costs
+ * one token, tokens refill at a configured rate up to a burst size. Batches that
+ * arrive without a token are queued in the player's backlog and delivered by
+ * {@link #drain()} over the next ticks, so a burst is spread out instead of
+ * running in a single tick. Nothing is dropped. A full backlog merges new
+ * drops into its last batch, so a player mining faster than the rate keeps a
+ * bounded queue and delay.
+ * <p>
+ * Drops from frequent small sources (mob kills) can be collected with
+ * {@link #collect} instead; they are merged per player and submitted as one
+ * batch on the next tick.
+ * <p>
+ * Under {@link LoadTier#CRITICAL} load all drops are queued, and each player's
+ * admitted drops are merged into a single inventory insert per tick.
+ * <p>
+ * Materials in the player's junk filter are taken out as drops enter the
+ * pipeline, so they are never queued, converted, smelted or inserted. Stored
+ * items (container contents) are not filtered, and are never deleted: what
+ * doesn't fit and isn't taken by the vault is dropped where they came from.
+ */
+public class PickupPipeline {
+
+    // Tokens are counted in thousandths so fractional refill per tick needs no floats
+    private static final int TOKEN = 1000;
+    private static final ItemStack[] NO_ITEMS = new ItemStack[0];
+
+    /**
+     * Queued items of one source. Drops go through convert and smelt, stored
+     * items (e.g. container contents) are inserted as they are, and their
+     * leftovers are dropped at the origin. Rules are the {@link RegionGrid}
+     * features allowed where the items came from.
+     */
+    private record Batch(ItemStack[] drops, ItemStack[] stored, Location origin, int rules) {
+        int itemCount() {
+            return countItems(drops) + countItems(stored);
+        }
+    }
+
+    private final AutoPickupPlugin plugin;
+    // Marks item entities of filtered drops with the UUID of the player they were left for
+    private final NamespacedKey filteredKey;
+    private boolean admissionEnabled;
+    private int refillPerTick;
+    private int maxTokens;
+    private int maxBacklog;
+    private boolean dropOverflow;
+
+    private PlayerSession[] sessions = new PlayerSession[64];
+    private int[] tokens = new int[64];
+    private int[] lastRefillTick = new int[64];
+    @SuppressWarnings("unchecked")
+    private ArrayDeque<Batch>[] backlogs = new ArrayDeque[64];
+
+    // Drops collected during the current tick, submitted as one batch per player
+    private DropBatch[] collected = new DropBatch[64];
+    private int[] collectedIds = new int[16];
+    private int collectedCount = 0;
+
+    // Session ids with a non-empty backlog, each listed at most once
+    private int[] backlogIds = new int[16];
+    private int backlogCount = 0;
+
+    // Reused while delivering (main thread only)
+    private final List<ItemStack> mergedDrops = new ArrayList<>();
+    private final List<ItemStack> inserts = new ArrayList<>();
+    private final List<ItemStack> storedLeftovers = new ArrayList<>();
+
+    // Statistics
+    private long filteredItems = 0;
+    private long deferredBatches = 0;
+    private long deferredItems = 0;
+    private long drainedBatches = 0;
+    private long drainedItems = 0;
+    private int backlogBatches = 0;
+
+    public PickupPipeline(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        this.filteredKey = new NamespacedKey(plugin, "filtered_for");
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        admissionEnabled = plugin.getConfig().getBoolean("admission-control.enabled", true);
+        double rate = Math.max(0.1, plugin.getConfig().getDouble("admission-control.rate", 20));
+        int burst = Math.max(1, plugin.getConfig().getInt("admission-control.burst", 20));
+        maxBacklog = Math.max(1, plugin.getConfig().getInt("admission-control.max-backlog", 40));
+        refillPerTick = Math.max(1, (int) Math.round(rate * TOKEN / 20));
+        maxTokens = burst * TOKEN;
+        dropOverflow = plugin.getConfig().getString("auto-pickup.overflow", "delete").equalsIgnoreCase("drop");
+    }
+
+    /**
+     * Hand a batch of drops from one source (e.g. a broken block) to the pipeline.
+     * It is delivered now if the player has a token, otherwise queued.
+     */
+    public void submit(PlayerSession session, Collection<ItemStack> drops) {
+        submit(session, drops, List.of(), null, RegionGrid.ALL);
+    }
+
+    /**
+     * Like {@link #submit(PlayerSession, Collection)}, limited to the given
+     * {@link RegionGrid} features.
+     */
+    public void submit(PlayerSession session, Collection<ItemStack> drops, int rules) {
+        submit(session, drops, List.of(), null, rules);
+    }
+
+    /**
+     * Like {@link #submit(PlayerSession, Collection, int)}, with items that go into
+     * the inventory in the same insert but are not converted or smelted. Stored
+     * items that fit neither the inventory nor the vault are dropped at the origin.
+     */
+    public void submit(PlayerSession session, Collection<ItemStack> drops, Collection<ItemStack> stored,
+                       Location origin, int rules) {
+        // Container contents were stored on purpose and are never filtered
+        drops = removeFiltered(session, drops);
+        if (drops.isEmpty() && stored.isEmpty()) {
+            return;
+        }
+        boolean coalesce = plugin.getLoadManager().coalescesInserts();
+        if (!admissionEnabled && !coalesce) {
+            deliver(session, drops, stored, origin, rules, false);
+            return;
+        }
+
+        int id = prepare(session);
+        refill(id);
+        ArrayDeque<Batch> backlog = backlogs[id];
+        // Keep the order: later drops wait behind queued ones
+        if (!coalesce && (backlog == null || backlog.isEmpty()) && tokens[id] >= TOKEN) {
+            tokens[id] -= TOKEN;
+            deliver(session, drops, stored, origin, rules, false);
+            return;
+        }
+
+        if (backlog == null) {
+            backlog = new ArrayDeque<>();
+            backlogs[id] = backlog;
+        }
+        if (backlog.isEmpty()) {
+            if (backlogCount == backlogIds.length) {
+                backlogIds = Arrays.copyOf(backlogIds, backlogCount * 2);
+            }
+            backlogIds[backlogCount++] = id;
+        }
+        if (backlog.size() >= maxBacklog) {
+            Batch tail = backlog.peekLast();
+            if (tail.rules() != rules || tail.stored().length > 0 || !stored.isEmpty()) {
+                // Can't share the last batch's rules or origin, and the queue must not grow
+                deliver(session, drops, stored, origin, rules, false);
+                return;
+            }
+            // Backlog is full - ride along with the last batch instead of growing it
+            Batch batch = new Batch(concat(tail.drops(), drops.toArray(NO_ITEMS)), NO_ITEMS, null, rules);
+            backlog.pollLast();
+            backlog.add(batch);
+            deferredItems += batch.itemCount() - tail.itemCount();
+            return;
+        }
+        Batch batch = new Batch(drops.toArray(NO_ITEMS), stored.toArray(NO_ITEMS), origin, rules);
+        deferredItems += batch.itemCount();
+        backlog.add(batch);
+        backlogBatches++;
+        deferredBatches++;
+    }
+
+    private static ItemStack[] concat(ItemStack[] first, ItemStack[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        ItemStack[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    /**
+     * Add drops to the player's batch for this tick. The batch goes through the
+     * pipeline with the next {@link #drain()}, so many small sources in one tick
+     * cost a single inventory pass.
+     */
+    public void collect(PlayerSession session, Collection<ItemStack> drops) {
+        collect(session, drops, RegionGrid.ALL);
+    }
+
+    /**
+     * Like {@link #collect(PlayerSession, Collection)}, limited to the given
+     * {@link RegionGrid} features. Drops from restricted areas are not merged
+     * with the others and are submitted right away.
+     */
+    public void collect(PlayerSession session, Collection<ItemStack> drops, int rules) {
+        if (drops.isEmpty()) {
+            return;
+        }
+        if (rules != RegionGrid.ALL) {
+            submit(session, drops, List.of(), null, rules);
+            return;
+        }
+        drops = removeFiltered(session, drops);
+
+        int id = prepare(session);
+        DropBatch batch = collected[id];
+        if (batch == null) {
+            batch = new DropBatch();
+            collected[id] = batch;
+        }
+        if (batch.isEmpty()) {
+            if (collectedCount == collectedIds.length) {
+                collectedIds = Arrays.copyOf(collectedIds, collectedCount * 2);
+            }
+            collectedIds[collectedCount++] = id;
+        }
+        for (ItemStack drop : drops) {
+            batch.add(drop);
+        }
+    }
+
+    /**
+     * Take the materials of the player's junk filter out of some items. They are
+     * voided, or dropped at the player if the player chose to keep them on the ground.
+     *
+     * @return the remaining items (the same collection if nothing was filtered)
+     */
+    private Collection<ItemStack> removeFiltered(PlayerSession session, Collection<ItemStack> items) {
+        if (!session.hasFilter()) {
+            return items;
+        }
+        boolean any = false;
+        for (ItemStack item : items) {
+            if (session.isFiltered(item.getType())) {
+                any = true;
+                break;
+            }
+        }
+        if (!any) {
+            return items;
+        }
+
+        List<ItemStack> kept = new ArrayList<>(items.size());
+        List<ItemStack> removed = new ArrayList<>();
+        for (ItemStack item : items) {
+            if (session.isFiltered(item.getType())) {
+                removed.add(item);
+                filteredItems += item.getAmount();
+            } else {
+                kept.add(item);
+            }
+        }
+        if (session.hasSetting(PlayerDataManager.PlayerData.FLAG_FILTER_DROP)) {
+            dropAtPlayer(session.getPlayer(), removed, true);
+        }
+        return kept;
+    }
+
+    /**
+     * Whether an item entity is a filtered drop the pipeline left on the ground
+     * for the given player.
+     */
+    public boolean isFilteredDrop(Item item, Player player) {
+        String owner = item.getPersistentDataContainer().get(filteredKey, PersistentDataType.STRING);
+        return owner != null && owner.equals(player.getUniqueId().toString());
+    }
+
+    private void submitCollected() {
+        for (int i = 0; i < collectedCount; i++) {
+            int id = collectedIds[i];
+            DropBatch batch = collected[id];
+            if (sessions[id] != null && !batch.isEmpty()) {
+                submit(sessions[id], batch.drain());
+            }
+        }
+        collectedCount = 0;
+    }
+
+    /**
+     * Submit this tick's collected drops, then deliver queued batches as far as
+     * the players' tokens allow. Called every tick.
+     */
+    public void drain() {
+        submitCollected();
+
+        boolean coalesce = plugin.getLoadManager().coalescesInserts();
+        int kept = 0;
+        for (int i = 0; i < backlogCount; i++) {
+            int id = backlogIds[i];
+            PlayerSession session = sessions[id];
+            ArrayDeque<Batch> backlog = backlogs[id];
+            if (backlog == null || backlog.isEmpty()) {
+                continue;
+            }
+
+            refill(id);
+            while ((!admissionEnabled || tokens[id] >= TOKEN) && !backlog.isEmpty()) {
+                if (admissionEnabled) {
+                    tokens[id] -= TOKEN;
+                }
+                Batch batch = backlog.poll();
+                countDrained(batch);
+                // Stored items keep their own origin, so they are not merged
+                if (coalesce && batch.rules() == RegionGrid.ALL && batch.stored().length == 0) {
+                    Collections.addAll(mergedDrops, batch.drops());
+                } else {
+                    deliver(session, Arrays.asList(batch.drops()), Arrays.asList(batch.stored()), batch.origin(),
+                            batch.rules(), false);
+                }
+            }
+            if (!mergedDrops.isEmpty()) {
+                deliver(session, mergedDrops, List.of(), null, RegionGrid.ALL, true);
+                mergedDrops.clear();
+            }
+            if (!backlog.isEmpty()) {
+                backlogIds[kept++] = id;
+            }
+        }
+        backlogCount = kept;
+    }
+
+    /**
+     * Deliver a player's whole backlog at once (used on quit).
+     */
+    public void flush(PlayerSession session) {
+        int id = session.getId();
+        if (id >= sessions.length || sessions[id] != session) {
+            return;
+        }
+        DropBatch pending = collected[id];
+        if (pending != null && !pending.isEmpty()) {
+            deliver(session, pending.drain(), List.of(), null, RegionGrid.ALL, false);
+        }
+        ArrayDeque<Batch> backlog = backlogs[id];
+        while (backlog != null && !backlog.isEmpty()) {
+            Batch batch = backlog.poll();
+            countDrained(batch);
+            deliver(session, Arrays.asList(batch.drops()), Arrays.asList(batch.stored()), batch.origin(),
+                    batch.rules(), false);
+        }
+        sessions[id] = null;
+    }
+
+    /**
+     * Deliver every backlog at once (used on disable).
+     */
+    public void flushAll() {
+        submitCollected();
+        for (int i = 0; i < backlogCount; i++) {
+            int id = backlogIds[i];
+            if (sessions[id] != null) {
+                flush(sessions[id]);
+            }
+        }
+        backlogCount = 0;
+    }
+
+    private int prepare(PlayerSession session) {
+        int id = session.getId();
+        if (id >= sessions.length) {
+            int length = Math.max(id + 1, sessions.length * 2);
+            sessions = Arrays.copyOf(sessions, length);
+            tokens = Arrays.copyOf(tokens, length);
+            lastRefillTick = Arrays.copyOf(lastRefillTick, length);
+            backlogs = Arrays.copyOf(backlogs, length);
+            collected = Arrays.copyOf(collected, length);
+        }
+        if (sessions[id] != session) {
+            // New session on this id starts with a full bucket
+            sessions[id] = session;
+            tokens[id] = maxTokens;
+            lastRefillTick[id] = plugin.getServer().getCurrentTick();
+            if (backlogs[id] != null) {
+                backlogBatches -= backlogs[id].size();
+                backlogs[id].clear();
+            }
+            if (collected[id] != null) {
+                collected[id].drain();
+            }
+        }
+        return id;
+    }
+
+    private void refill(int id) {
+        int tick = plugin.getServer().getCurrentTick();
+        int elapsed = tick - lastRefillTick[id];
+        if (elapsed > 0) {
+            tokens[id] = (int) Math.min(maxTokens, tokens[id] + (long) elapsed * refillPerTick);
+            lastRefillTick[id] = tick;
+        }
+    }
+
+    private void countDrained(Batch batch) {
+        backlogBatches--;
+        drainedBatches++;
+        drainedItems += batch.itemCount();
+    }
+
+    private static int countItems(ItemStack[] items) {
+        int count = 0;
+        for (ItemStack item : items) {
+            count += item.getAmount();
+        }
+        return count;
+    }
+
+    // ===== Delivery =====
+
+    /**
+     * Convert, smelt and insert drops, and insert stored items as they are.
+     * Settings are read at delivery time, so queued drops follow what the
+     * player has active when they are delivered; region rules can only turn
+     * them off. All resulting stacks go into the inventory with one insert
+     * (when merging, similar drops are combined first), and whatever does not
+     * fit is handled once by the overflow setting.
+     */
+    private void deliver(PlayerSession session, Collection<ItemStack> drops, Collection<ItemStack> stored,
+                         Location origin, int rules, boolean merge) {
+        Player player = session.getPlayer();
+        ConverterManager cm = plugin.getConverterManager();
+        if (!drops.isEmpty() && session.hasPermission(PlayerSession.PERM_CONVERTER)
+                && (rules & RegionGrid.CONVERTER) != 0) {
+            // Not every way into or out of the offhand has an event, so look once per delivery
+            plugin.getSessionManager().refreshOffhand(session);
+        }
+        boolean hasConverter = session.hasActiveConverter() && (rules & RegionGrid.CONVERTER) != 0;
+        boolean autoSmelt = session.isAutoSmeltEnabled() && (rules & RegionGrid.SMELT) != 0;
+        // Already narrowed down to the items the player wants smelted
+        Material[] smeltTable = session.getSmeltTable();
+
+        for (ItemStack drop : drops) {
+            // Drops are fresh stacks, no need to copy them
+            ItemStack finalDrop = drop;
+
+            // Check for ore converter in offhand - uses accumulator system
+            if (hasConverter) {
+                RecipeSnapshot recipes = cm.getSnapshot();
+                ConversionRecipe recipe = recipes.findRecipe(finalDrop.getType());
+                if (recipe != null) {
+                    processConverterWithAccumulator(finalDrop, recipe, recipes.getSlot(recipe.getInputItem()), session, cm);
+                    // Absorbed into accumulator, skip to next drop
+                    continue;
+                }
+            }
+
+            // Check for auto smelt
+            if (autoSmelt) {
+                finalDrop = SmeltingManager.smelt(smeltTable, finalDrop);
+            }
+
+            addInsert(finalDrop, merge);
+        }
+        // Stored items come last and are never merged, so their leftovers can be told apart
+        int firstStored = inserts.size();
+        for (ItemStack item : stored) {
+            addSplit(inserts, item, item.getAmount());
+        }
+
+        if (inserts.isEmpty()) {
+            return;
+        }
+        Map<Integer, ItemStack> leftover = player.getInventory().addItem(inserts.toArray(NO_ITEMS));
+        inserts.clear();
+        if (stored.isEmpty() || leftover.isEmpty()) {
+            handleOverflow(session, leftover.values());
+            return;
+        }
+
+        List<ItemStack> dropLeftovers = new ArrayList<>(leftover.size());
+        for (Map.Entry<Integer, ItemStack> entry : leftover.entrySet()) {
+            (entry.getKey() < firstStored ? dropLeftovers : storedLeftovers).add(entry.getValue());
+        }
+        handleOverflow(session, dropLeftovers);
+        handleStoredOverflow(session, origin);
+    }
+
+    /**
+     * Stored items that did not fit go into the vault, or are dropped at their
+     * origin like the container would have spilled them - whatever the
+     * overflow setting, since they were stored on purpose.
+     */
+    private void handleStoredOverflow(PlayerSession session, Location origin) {
+        Collection<ItemStack> remaining = plugin.getVaultManager().deposit(session, storedLeftovers);
+        Location location = origin != null ? origin : session.getPlayer().getLocation();
+        for (ItemStack item : remaining) {
+            location.getWorld().dropItemNaturally(location, item);
+        }
+        storedLeftovers.clear();
+    }
+
+    /**
+     * Deal with items that did not fit in the player's inventory. In priority
+     * mode they may replace less valuable stacks, then they go into the
+     * player's overflow vault; whatever is still left over is deleted, or
+     * dropped at the player if configured.
+     */
+    public void handleOverflow(PlayerSession session, Collection<ItemStack> leftovers) {
+        if (leftovers.isEmpty()) {
+            return;
+        }
+        EvictionManager eviction = plugin.getEvictionManager();
+        Collection<ItemStack> remaining = eviction.isEnabled() ? eviction.evict(session, leftovers) : leftovers;
+        remaining = plugin.getVaultManager().deposit(session, remaining);
+        if (dropOverflow && !remaining.isEmpty()) {
+            dropAtPlayer(session.getPlayer(), remaining, false);
+        }
+    }
+
+    private void addInsert(ItemStack item, boolean merge) {
+        if (merge) {
+            addMerged(inserts, item);
+        } else {
+            addSplit(inserts, item, item.getAmount());
+        }
+    }
+
+    /**
+     * Top up similar stacks that are not full yet, then add the rest as new stacks.
+     */
+    private static void addMerged(List<ItemStack> stacks, ItemStack item) {
+        int max = Math.max(1, item.getMaxStackSize());
+        int remaining = item.getAmount();
+        for (ItemStack stack : stacks) {
+            if (remaining == 0) {
+                return;
+            }
+            if (stack.getAmount() < max && stack.isSimilar(item)) {
+                int moved = Math.min(remaining, max - stack.getAmount());
+                stack.setAmount(stack.getAmount() + moved);
+                remaining -= moved;
+            }
+        }
+        addSplit(stacks, item, remaining);
+    }
+
+    /**
+     * Add an amount of an item as stacks of at most its max stack size. The
+     * inventory does not split oversized stacks by the item's own limit.
+     */
+    private static void addSplit(List<ItemStack> stacks, ItemStack item, int amount) {
+        int max = Math.max(1, item.getMaxStackSize());
+        if (amount == item.getAmount() && amount <= max) {
+            stacks.add(item);
+            return;
+        }
+        for (int left = amount; left > 0; left -= max) {
+            ItemStack stack = item.clone();
+            stack.setAmount(Math.min(left, max));
+            stacks.add(stack);
+        }
+    }
+
+    private void dropAtPlayer(Player player, Collection<ItemStack> items, boolean filtered) {
+        Location location = player.getLocation();
+        String owner = player.getUniqueId().toString();
+        for (ItemStack item : items) {
+            // Leftovers of merged stacks can exceed the max stack size
+            int remaining = item.getAmount();
+            int max = Math.max(1, item.getMaxStackSize());
+            while (remaining > 0) {
+                ItemStack stack = item.clone();
+                stack.setAmount(Math.min(remaining, max));
+                remaining -= stack.getAmount();
+                if (filtered) {
+                    // Tagged so the player doesn't pick it up again, see LootListener
+                    player.getWorld().dropItem(location, stack,
+                            item -> item.getPersistentDataContainer().set(filteredKey, PersistentDataType.STRING, owner));
+                } else {
+                    player.getWorld().dropItem(location, stack);
+                }
+            }
+        }
+    }
+
+    /**
+     * Process converter with accumulator system - items are absorbed until threshold is reached.
+     */
+    private void processConverterWithAccumulator(ItemStack drop, ConversionRecipe recipe, int slot, PlayerSession session, ConverterManager cm) {
+        int inputRequired = recipe.getInputAmount();
+
+        // Add to accumulator and take out completed conversions in one step
+        long result = cm.addToAccumulator(session, slot, drop.getAmount(), inputRequired);
+        int conversions = AccumulatorStore.conversions(result);
+        int remainder = AccumulatorStore.remainder(result);
+
+        if (conversions > 0) {
+            // Give converted items using the full ItemStack (preserves custom name, lore, enchants, etc.)
+            ItemStack outputItem = recipe.getOutputItemStack();
+            outputItem.setAmount(conversions * recipe.getOutputAmount());
+
+            // Inserted together with the other drops
+            inserts.add(outputItem);
+
+            // Show conversion message
+            plugin.getActionBarManager().converted(session, recipe.getInputItem(), recipe.getOutputItem(),
+                    conversions * recipe.getOutputAmount(), remainder);
+        } else {
+            // Show progress in action bar
+            plugin.getActionBarManager().progress(session, recipe.getInputItem(), remainder, inputRequired);
+        }
+    }
+
+    // ===== Statistics =====
+
+    /**
+     * Number of items taken out by junk filters.
+     */
+    public long getFilteredItems() {
+        return filteredItems;
+    }
+
+    public long getDeferredBatches() {
+        return deferredBatches;
+    }
+
+    public long getDeferredItems() {
+        return deferredItems;
+    }
+
+    public long getDrainedBatches() {
+        return drainedBatches;
+    }
+
+    public long getDrainedItems() {
+        return drainedItems;
+    }
+
+    /**
+     * Number of batches currently waiting in backlogs.
+     */
+    public int getBacklogBatches() {
+        return backlogBatches;
+    }
+}
@@ -1,84 +1,357 @@
 package com.autopickup.managers;
 
 import com.autopickup.AutoPickupPlugin;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import com.autopickup.storage.MappedPlayerDataStore;
+import com.autopickup.storage.PlayerDataImporter;
+import com.autopickup.storage.PlayerDataStore;
+import com.autopickup.storage.PlayerRecord;
+import com.autopickup.storage.SqlitePlayerDataStore;
+import com.autopickup.storage.YamlPlayerDataStore;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.IllegalPluginAccessException;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class PlayerDataManager {
 
     private final AutoPickupPlugin plugin;
     private final File dataFile;
-    private FileConfiguration dataConfig;
+    // Only touched by the IO thread after it has been opened
+    private PlayerDataStore store;
+    private volatile String storeName = "none";
+    // Size limit of junk filters and smelt exclusions set by the backend
+    private int maxMaterials = Integer.MAX_VALUE;
+    // Delay before forcing unsynced writes, and whether that is scheduled (IO thread)
+    private long syncDelayTicks = 100;
+    private boolean syncScheduled = false;
+
+    // Settings of online players, loaded on join and released on quit
     private final Map<UUID, PlayerData> playerDataMap;
+    // Recently used settings of offline players, bounded
+    private final Map<UUID, PlayerData> recentData;
+    // Loaded during async pre-login, picked up by the main thread on join
+    private final Map<UUID, PlayerData> preloadedData = new ConcurrentHashMap<>();
+
+    // Write-behind: changed players are collected here and written in batches
+    private final Map<UUID, PlayerData> dirtyPlayers = new LinkedHashMap<>();
+    private final Queue<PlayerRecord> queuedRecords = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedEntries = new AtomicInteger();
+
+    // Statistics
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos = 0;
 
     public PlayerDataManager(AutoPickupPlugin plugin) {
         this.plugin = plugin;
         this.dataFile = new File(plugin.getDataFolder(), "playerdata.yml");
         this.playerDataMap = new HashMap<>();
-        loadAllData();
+
+        int cacheSize = Math.max(0, plugin.getConfig().getInt("player-data.cache-size", 500));
+        this.recentData = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, PlayerData> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        // Nothing is read here - entries are loaded per player when needed
+        openStore();
     }
 
-    public void loadAllData() {
-        if (!dataFile.exists()) {
-            try {
-                plugin.getDataFolder().mkdirs();
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Could not create playerdata.yml: " + e.getMessage());
+    // ===== Storage backend =====
+
+    /**
+     * Create the backend selected in the config and open it on the IO thread.
+     * When switching away from YAML, existing playerdata.yml entries are imported once.
+     * If that fails no storage is used: settings fall back to the defaults and
+     * are not saved, so nothing overwrites the data that couldn't be opened.
+     */
+    private void openStore() {
+        String type = plugin.getConfig().getString("player-data.storage", "yaml").toLowerCase();
+        PlayerDataStore newStore;
+        if (type.equals("sqlite")) {
+            if (SqlitePlayerDataStore.isAvailable()) {
+                newStore = new SqlitePlayerDataStore(new File(plugin.getDataFolder(), "playerdata.db"));
+            } else {
+                plugin.getLogger().warning("SQLite driver not found, falling back to YAML storage");
+                newStore = new YamlPlayerDataStore(dataFile, plugin.getLogger());
+            }
+        } else if (type.equals("mmap")) {
+            long syncInterval = Math.max(0, plugin.getConfig().getLong("player-data.sync-interval", 5)) * 1000L;
+            syncDelayTicks = Math.max(1, syncInterval / 50);
+            newStore = new MappedPlayerDataStore(new File(plugin.getDataFolder(), "playerdata.dat"), plugin.getLogger(), syncInterval);
+        } else {
+            if (!type.equals("yaml")) {
+                plugin.getLogger().warning("Unknown player-data.storage '" + type + "', using YAML");
             }
+            newStore = new YamlPlayerDataStore(dataFile, plugin.getLogger());
         }
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
 
-        // Load all player data
-        if (dataConfig.contains("players") && dataConfig.getConfigurationSection("players") != null) {
-            for (String uuidString : dataConfig.getConfigurationSection("players").getKeys(false)) {
+        maxMaterials = newStore.getMaxMaterials();
+        PlayerDataStore opened = newStore;
+        plugin.getIoExecutor().execute(() -> {
+            try {
+                opened.open();
+                importLegacyData(opened);
+                store = opened;
+                storeName = opened.getName();
+            } catch (Exception e) {
                 try {
-                    UUID uuid = UUID.fromString(uuidString);
-                    boolean autoPickup = dataConfig.getBoolean("players." + uuidString + ".auto-pickup", true);
-                    boolean autoSmelt = dataConfig.getBoolean("players." + uuidString + ".auto-smelt", false);
-                    playerDataMap.put(uuid, new PlayerData(autoPickup, autoSmelt));
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("Invalid UUID in playerdata.yml: " + uuidString);
+                    opened.close();
+                } catch (Exception closeError) {
+                    plugin.getLogger().warning("Could not close " + opened.getName() + " player data storage: " + closeError.getMessage());
                 }
+                store = null;
+                storeName = "unavailable";
+                plugin.getLogger().severe("Could not open " + opened.getName() + " player data storage: " + e.getMessage());
+                plugin.getLogger().severe("Player settings will NOT be loaded or saved until this is fixed and the server restarted!");
             }
+        });
+    }
+
+    /**
+     * One-shot import of playerdata.yml into another backend. The YAML file is
+     * renamed afterwards so it is not imported again. Runs on the IO thread.
+     */
+    private void importLegacyData(PlayerDataStore target) throws Exception {
+        if (target instanceof YamlPlayerDataStore || !dataFile.exists()) {
+            return;
+        }
+
+        YamlPlayerDataStore legacy = new YamlPlayerDataStore(dataFile, plugin.getLogger());
+        legacy.open();
+        int imported = PlayerDataImporter.importAll(legacy, target);
+        legacy.close();
+
+        File done = new File(dataFile.getParentFile(), dataFile.getName() + ".imported");
+        if (!dataFile.renameTo(done)) {
+            plugin.getLogger().warning("Could not rename " + dataFile.getName() + " after importing it");
         }
-        plugin.getLogger().info("Loaded " + playerDataMap.size() + " player data entries.");
+        plugin.getLogger().info("Imported " + imported + " player data entries into " + target.getName() + " storage.");
     }
 
-    public void saveAllData() {
-        for (Map.Entry<UUID, PlayerData> entry : playerDataMap.entrySet()) {
-            String path = "players." + entry.getKey().toString();
-            dataConfig.set(path + ".auto-pickup", entry.getValue().isAutoPickupEnabled());
-            dataConfig.set(path + ".auto-smelt", entry.getValue().isAutoSmeltEnabled());
+    /**
+     * Close the backend once all queued writes are done (used on disable).
+     */
+    public void shutdown() {
+        plugin.getIoExecutor().execute(this::closeStore);
+    }
+
+    private void closeStore() {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.close();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Could not close player data storage: " + e.getMessage());
         }
+        store = null;
+    }
+
+    // ===== Loading =====
 
+    /**
+     * Load a player's settings ahead of their join. Called from the async
+     * pre-login thread, so it may block.
+     */
+    public void preload(UUID uuid) {
         try {
-            dataConfig.save(dataFile);
-            plugin.getLogger().info("Saved " + playerDataMap.size() + " player data entries.");
-        } catch (IOException e) {
-            plugin.getLogger().severe("Could not save playerdata.yml: " + e.getMessage());
+            PlayerData data = CompletableFuture.supplyAsync(() -> readEntry(uuid), plugin.getIoExecutor())
+                    .get(10, TimeUnit.SECONDS);
+            preloadedData.put(uuid, data);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Could not preload player data of " + uuid + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forget settings preloaded for a login that was refused after all.
+     */
+    public void discardPreloaded(UUID uuid) {
+        preloadedData.remove(uuid);
+    }
+
+    /**
+     * Make a player's settings resident while they are online. If they were
+     * not preloaded, defaults are used until storage has been read.
+     */
+    public PlayerData loadOnline(UUID uuid) {
+        PlayerData preloaded = preloadedData.remove(uuid);
+        PlayerData data = playerDataMap.get(uuid);
+        if (data != null) {
+            return data;
+        }
+
+        // Unsaved or recently used data is newer than what was read from disk
+        data = dirtyPlayers.get(uuid);
+        if (data == null) {
+            data = recentData.remove(uuid);
+        }
+        if (data == null) {
+            data = preloaded;
+        }
+        if (data == null) {
+            return loadLater(uuid, playerDataMap);
+        }
+        playerDataMap.put(uuid, data);
+        return data;
+    }
+
+    /**
+     * Release a player's settings when they leave. They stay in the bounded
+     * recent cache so a quick rejoin or an admin lookup needs no disk access.
+     */
+    public void unloadPlayer(UUID uuid) {
+        PlayerData data = playerDataMap.remove(uuid);
+        if (data != null) {
+            recentData.put(uuid, data);
+        }
+        preloadedData.remove(uuid);
+    }
+
+    /**
+     * Get a player's settings, online or not, without blocking: from memory
+     * if they are there, otherwise the callback runs on the main thread once
+     * storage has been read.
+     */
+    public void loadOffline(UUID uuid, Consumer<PlayerData> callback) {
+        PlayerData data = findResident(uuid);
+        if (data != null) {
+            callback.accept(data);
+            return;
+        }
+        readAsync(uuid, loaded -> {
+            // May have joined or been looked up in the meantime
+            PlayerData resident = findResident(uuid);
+            if (resident == null) {
+                recentData.put(uuid, loaded);
+                resident = loaded;
+            }
+            callback.accept(resident);
+        });
+    }
+
+    private PlayerData findResident(UUID uuid) {
+        PlayerData data = playerDataMap.get(uuid);
+        if (data == null) {
+            data = dirtyPlayers.get(uuid);
+        }
+        if (data == null) {
+            data = recentData.get(uuid);
+        }
+        return data;
+    }
+
+    /**
+     * Put defaults into the given map and replace them with the stored
+     * settings once read, unless they were changed in the meantime.
+     */
+    private PlayerData loadLater(UUID uuid, Map<UUID, PlayerData> target) {
+        PlayerData placeholder = PlayerData.fromFlags(PlayerData.DEFAULT_FLAGS);
+        target.put(uuid, placeholder);
+        readAsync(uuid, loaded -> {
+            if (!placeholder.isDefault()) {
+                return;
+            }
+            // The player may have joined or left in the meantime
+            if (playerDataMap.get(uuid) == placeholder) {
+                playerDataMap.put(uuid, loaded);
+                plugin.getSessionManager().updateSettings(uuid, loaded);
+            } else if (recentData.get(uuid) == placeholder) {
+                recentData.put(uuid, loaded);
+            }
+        });
+        return placeholder;
+    }
+
+    /**
+     * Read an entry on the IO thread and hand it to the callback on the main thread.
+     */
+    private void readAsync(UUID uuid, Consumer<PlayerData> callback) {
+        CompletableFuture.supplyAsync(() -> readEntry(uuid), plugin.getIoExecutor()).thenAccept(data -> {
+            try {
+                plugin.getServer().getScheduler().runTask(plugin, () -> callback.accept(data));
+            } catch (IllegalPluginAccessException e) {
+                // Plugin is disabling - nobody is waiting for the settings anymore
+            }
+        });
+    }
+
+    /**
+     * Queue all pending changes for writing. The writes finish on the IO thread,
+     * which onDisable waits for.
+     */
+    public void saveAllData() {
+        int pending = dirtyPlayers.size();
+        flush();
+        if (pending > 0) {
+            plugin.getLogger().info("Queued " + pending + " changed player data entries for saving.");
         }
     }
 
     public void reloadData() {
-        saveAllData();
-        playerDataMap.clear();
-        loadAllData();
+        // Write pending changes, then reopen the backend (it may have been switched)
+        flush();
+        plugin.getIoExecutor().execute(this::closeStore);
+        openStore();
+        recentData.clear();
+        preloadedData.clear();
+
+        // Re-read the settings of online players. The reads queue up behind the
+        // reopen; current settings stay in use until they arrive
+        for (Map.Entry<UUID, PlayerData> entry : playerDataMap.entrySet()) {
+            UUID uuid = entry.getKey();
+            PlayerData current = entry.getValue();
+            readAsync(uuid, loaded -> {
+                if (playerDataMap.get(uuid) == current && !dirtyPlayers.containsKey(uuid)) {
+                    playerDataMap.put(uuid, loaded);
+                    plugin.getSessionManager().updateSettings(uuid, loaded);
+                }
+            });
+        }
     }
 
     public PlayerData getPlayerData(Player player) {
         return getPlayerData(player.getUniqueId());
     }
 
+    /**
+     * Get a player's settings. Meant for online players, whose settings are
+     * resident; anyone else is looked up in the recent cache, or gets defaults
+     * that are replaced once storage has been read. Use {@link #loadOffline}
+     * to wait for an offline player's stored settings.
+     */
     public PlayerData getPlayerData(UUID uuid) {
-        return playerDataMap.computeIfAbsent(uuid, k -> new PlayerData(true, false));
+        PlayerData data = playerDataMap.get(uuid);
+        if (data != null) {
+            return data;
+        }
+
+        data = dirtyPlayers.get(uuid);
+        if (data == null) {
+            data = recentData.get(uuid);
+        }
+        if (data == null) {
+            return loadLater(uuid, recentData);
+        }
+        recentData.put(uuid, data);
+        return data;
     }
 
     public boolean isAutoPickupEnabled(Player player) {
@@ -89,6 +362,30 @@ public class PlayerDataManager {
         return getPlayerData(player).isAutoSmeltEnabled();
     }
 
+    public boolean isMobDropsEnabled(Player player) {
+        return getPlayerData(player).isMobDropsEnabled();
+    }
+
+    public boolean isFishingEnabled(Player player) {
+        return getPlayerData(player).isFishingEnabled();
+    }
+
+    public boolean isVeinMinerEnabled(Player player) {
+        return getPlayerData(player).isVeinMinerEnabled();
+    }
+
+    public boolean isMagnetEnabled(Player player) {
+        return getPlayerData(player).isMagnetEnabled();
+    }
+
+    public boolean isAutoReplantEnabled(Player player) {
+        return getPlayerData(player).isAutoReplantEnabled();
+    }
+
+    public boolean isFilterDropEnabled(Player player) {
+        return getPlayerData(player).isFilterDropEnabled();
+    }
+
     public void setAutoPickup(Player player, boolean enabled) {
         getPlayerData(player).setAutoPickupEnabled(enabled);
         savePlayerData(player.getUniqueId());
@@ -111,43 +408,488 @@ public class PlayerDataManager {
         savePlayerData(player.getUniqueId());
     }
 
+    public void toggleMobDrops(Player player) {
+        PlayerData data = getPlayerData(player);
+        data.setMobDropsEnabled(!data.isMobDropsEnabled());
+        savePlayerData(player.getUniqueId());
+    }
+
+    public void toggleFishing(Player player) {
+        PlayerData data = getPlayerData(player);
+        data.setFishingEnabled(!data.isFishingEnabled());
+        savePlayerData(player.getUniqueId());
+    }
+
+    public void toggleVeinMiner(Player player) {
+        PlayerData data = getPlayerData(player);
+        data.setVeinMinerEnabled(!data.isVeinMinerEnabled());
+        savePlayerData(player.getUniqueId());
+    }
+
+    public void toggleMagnet(Player player) {
+        PlayerData data = getPlayerData(player);
+        data.setMagnetEnabled(!data.isMagnetEnabled());
+        savePlayerData(player.getUniqueId());
+    }
+
+    public void toggleAutoReplant(Player player) {
+        PlayerData data = getPlayerData(player);
+        data.setAutoReplantEnabled(!data.isAutoReplantEnabled());
+        savePlayerData(player.getUniqueId());
+    }
+
+    public void toggleFilterDrop(Player player) {
+        PlayerData data = getPlayerData(player);
+        data.setFilterDropEnabled(!data.isFilterDropEnabled());
+        savePlayerData(player.getUniqueId());
+    }
+
+    /**
+     * Add a material to a player's junk filter or take it out.
+     *
+     * @return false if the filter is full and nothing changed
+     */
+    public boolean toggleFiltered(Player player, Material material) {
+        PlayerData data = getPlayerData(player);
+        if (!data.setFiltered(material, !data.isFiltered(material), maxMaterials)) {
+            return false;
+        }
+        savePlayerData(player.getUniqueId());
+        return true;
+    }
+
+    /**
+     * Exclude a material from a player's auto smelt or include it again.
+     *
+     * @return false if the exclusion list is full and nothing changed
+     */
+    public boolean toggleSmeltSkipped(Player player, Material material) {
+        PlayerData data = getPlayerData(player);
+        if (!data.setSmeltSkipped(material, !data.isSmeltSkipped(material), maxMaterials)) {
+            return false;
+        }
+        savePlayerData(player.getUniqueId());
+        return true;
+    }
+
+    /**
+     * Most materials a junk filter or smelt exclusion list can hold with the
+     * configured storage, {@link Integer#MAX_VALUE} if unlimited.
+     */
+    public int getMaxMaterials() {
+        return maxMaterials;
+    }
+
+    /**
+     * Mark a player's data as changed. It is written by the next flush, which
+     * happens on an interval or once enough players are waiting.
+     */
     private void savePlayerData(UUID uuid) {
-        PlayerData data = playerDataMap.get(uuid);
-        if (data != null) {
-            String path = "players." + uuid.toString();
-            dataConfig.set(path + ".auto-pickup", data.isAutoPickupEnabled());
-            dataConfig.set(path + ".auto-smelt", data.isAutoSmeltEnabled());
-            try {
-                dataConfig.save(dataFile);
-            } catch (IOException e) {
-                plugin.getLogger().severe("Could not save playerdata.yml: " + e.getMessage());
+        PlayerData data = getPlayerData(uuid);
+
+        // Keep the cached session flags in sync
+        plugin.getSessionManager().updateSettings(uuid, data);
+
+        dirtyPlayers.put(uuid, data);
+        // Under load, changes wait for the (stretched) save interval instead
+        if (dirtyPlayers.size() >= plugin.getConfig().getInt("player-data.save-threshold", 100)
+                && plugin.getLoadManager().getTier().getIntervalMultiplier() == 1) {
+            flush();
+        }
+    }
+
+    // ===== Write-behind =====
+
+    /**
+     * Hand all changed entries to the IO thread. Only the changed entries are
+     * copied on the main thread; the backend write happens off-thread.
+     */
+    public void flush() {
+        int size = dirtyPlayers.size();
+        if (size == 0) {
+            return;
+        }
+
+        for (Map.Entry<UUID, PlayerData> entry : dirtyPlayers.entrySet()) {
+            PlayerData data = entry.getValue();
+            queuedRecords.add(new PlayerRecord(entry.getKey(), data.getFlags(), data.getFilterNames(),
+                    data.getSmeltSkipNames()));
+        }
+        dirtyPlayers.clear();
+
+        queuedEntries.addAndGet(size);
+        plugin.getIoExecutor().execute(this::writeQueued);
+    }
+
+    // ===== IO thread =====
+
+    private PlayerData readEntry(UUID uuid) {
+        try {
+            PlayerRecord record = store != null ? store.load(uuid) : null;
+            return record != null ? PlayerData.fromRecord(record) : PlayerData.fromFlags(PlayerData.DEFAULT_FLAGS);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Could not load player data of " + uuid + ": " + e.getMessage());
+            return PlayerData.fromFlags(PlayerData.DEFAULT_FLAGS);
+        }
+    }
+
+    /**
+     * Write everything queued so far as one batch. Batches queued while a write
+     * was running are coalesced: the next run finds them all, later runs find nothing.
+     */
+    private void writeQueued() {
+        if (queuedRecords.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        // Keep only the newest record per player
+        Map<UUID, PlayerRecord> batch = new LinkedHashMap<>();
+        int polled = 0;
+        PlayerRecord record;
+        while ((record = queuedRecords.poll()) != null) {
+            batch.put(record.uuid(), record);
+            polled++;
+        }
+
+        try {
+            if (store == null) {
+                throw new IllegalStateException("storage is not open");
+            }
+            store.saveBatch(new ArrayList<>(batch.values()));
+            if (store.isUnsynced()) {
+                scheduleSync();
             }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Could not save " + batch.size() + " player data entries: " + e.getMessage());
+        }
+        queuedEntries.addAndGet(-polled);
+
+        long elapsed = System.nanoTime() - start;
+        lastFlushNanos = elapsed;
+        totalFlushNanos.addAndGet(elapsed);
+        flushCount.incrementAndGet();
+    }
+
+    /**
+     * Force the store's unsynced writes to disk one sync interval from now, so
+     * they aren't left waiting for the next batch once writes stop.
+     */
+    private void scheduleSync() {
+        if (syncScheduled) {
+            return;
+        }
+        try {
+            plugin.getServer().getScheduler().runTaskLater(plugin,
+                    () -> plugin.getIoExecutor().execute(this::syncStore), syncDelayTicks);
+            syncScheduled = true;
+        } catch (IllegalPluginAccessException e) {
+            // Plugin is disabling - the store is forced when it is closed
+        }
+    }
+
+    private void syncStore() {
+        syncScheduled = false;
+        if (store == null) {
+            return;
+        }
+        try {
+            store.sync();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Could not sync player data storage: " + e.getMessage());
         }
     }
 
+    // ===== Statistics =====
+
+    /**
+     * Number of changed entries not yet written to disk.
+     */
+    public int getPendingWrites() {
+        return dirtyPlayers.size() + queuedEntries.get();
+    }
+
+    /**
+     * Number of entries held in memory (online players plus the recent cache).
+     */
+    public int getResidentCount() {
+        return playerDataMap.size() + recentData.size();
+    }
+
+    /**
+     * Name of the active storage backend.
+     */
+    public String getStorageName() {
+        return storeName;
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000.0;
+    }
+
+    public double getAverageFlushMillis() {
+        long count = flushCount.get();
+        return count == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / count;
+    }
+
     public static class PlayerData {
-        private boolean autoPickupEnabled;
-        private boolean autoSmeltEnabled;
+        public static final int FLAG_AUTO_PICKUP = 1;
+        public static final int FLAG_AUTO_SMELT = 1 << 1;
+        public static final int FLAG_MOB_DROPS = 1 << 2;
+        public static final int FLAG_FISHING = 1 << 3;
+        public static final int FLAG_VEIN_MINER = 1 << 4;
+        public static final int FLAG_MAGNET = 1 << 5;
+        public static final int FLAG_AUTO_REPLANT = 1 << 6;
+        // Filtered drops are left on the ground instead of voided
+        public static final int FLAG_FILTER_DROP = 1 << 7;
+
+        public static final int DEFAULT_FLAGS = FLAG_AUTO_PICKUP;
+
+        private static final Material[] MATERIALS = Material.values();
+
+        // All settings packed into one int, exactly as the backends store them
+        private int flags;
+        // Junk filter as a bitset by material ordinal, null when empty. Never
+        // changed in place, so sessions can hold on to the array
+        private long[] filter;
+        // Materials excluded from auto smelt, same representation as the filter
+        private long[] smeltSkip;
 
         public PlayerData(boolean autoPickupEnabled, boolean autoSmeltEnabled) {
-            this.autoPickupEnabled = autoPickupEnabled;
-            this.autoSmeltEnabled = autoSmeltEnabled;
+            this((autoPickupEnabled ? FLAG_AUTO_PICKUP : 0) | (autoSmeltEnabled ? FLAG_AUTO_SMELT : 0));
+        }
+
+        private PlayerData(int flags) {
+            this.flags = flags;
+        }
+
+        public static PlayerData fromFlags(int flags) {
+            return new PlayerData(flags);
+        }
+
+        public static PlayerData fromRecord(PlayerRecord record) {
+            PlayerData data = new PlayerData(record.flags());
+            for (String name : record.filter()) {
+                // Materials removed in a server update are dropped from the filter
+                Material material = Material.getMaterial(name);
+                if (material != null) {
+                    data.setFiltered(material, true, Integer.MAX_VALUE);
+                }
+            }
+            for (String name : record.smeltSkip()) {
+                Material material = Material.getMaterial(name);
+                if (material != null) {
+                    data.setSmeltSkipped(material, true, Integer.MAX_VALUE);
+                }
+            }
+            return data;
+        }
+
+        /**
+         * Whether these are the default settings with an empty filter and no
+         * smelt exclusions.
+         */
+        public boolean isDefault() {
+            return flags == DEFAULT_FLAGS && filter == null && smeltSkip == null;
+        }
+
+        /**
+         * All settings packed into bit flags, as stored by the backends.
+         */
+        public int getFlags() {
+            return flags;
+        }
+
+        private void setFlag(int flag, boolean enabled) {
+            flags = enabled ? flags | flag : flags & ~flag;
         }
 
         public boolean isAutoPickupEnabled() {
-            return autoPickupEnabled;
+            return (flags & FLAG_AUTO_PICKUP) != 0;
         }
 
         public void setAutoPickupEnabled(boolean autoPickupEnabled) {
-            this.autoPickupEnabled = autoPickupEnabled;
+            setFlag(FLAG_AUTO_PICKUP, autoPickupEnabled);
         }
 
         public boolean isAutoSmeltEnabled() {
-            return autoSmeltEnabled;
+            return (flags & FLAG_AUTO_SMELT) != 0;
         }
 
         public void setAutoSmeltEnabled(boolean autoSmeltEnabled) {
-            this.autoSmeltEnabled = autoSmeltEnabled;
+            setFlag(FLAG_AUTO_SMELT, autoSmeltEnabled);
+        }
+
+        public boolean isMobDropsEnabled() {
+            return (flags & FLAG_MOB_DROPS) != 0;
+        }
+
+        public void setMobDropsEnabled(boolean mobDropsEnabled) {
+            setFlag(FLAG_MOB_DROPS, mobDropsEnabled);
+        }
+
+        public boolean isFishingEnabled() {
+            return (flags & FLAG_FISHING) != 0;
+        }
+
+        public void setFishingEnabled(boolean fishingEnabled) {
+            setFlag(FLAG_FISHING, fishingEnabled);
+        }
+
+        public boolean isVeinMinerEnabled() {
+            return (flags & FLAG_VEIN_MINER) != 0;
+        }
+
+        public void setVeinMinerEnabled(boolean veinMinerEnabled) {
+            setFlag(FLAG_VEIN_MINER, veinMinerEnabled);
+        }
+
+        public boolean isMagnetEnabled() {
+            return (flags & FLAG_MAGNET) != 0;
+        }
+
+        public void setMagnetEnabled(boolean magnetEnabled) {
+            setFlag(FLAG_MAGNET, magnetEnabled);
+        }
+
+        public boolean isAutoReplantEnabled() {
+            return (flags & FLAG_AUTO_REPLANT) != 0;
+        }
+
+        public void setAutoReplantEnabled(boolean autoReplantEnabled) {
+            setFlag(FLAG_AUTO_REPLANT, autoReplantEnabled);
+        }
+
+        public boolean isFilterDropEnabled() {
+            return (flags & FLAG_FILTER_DROP) != 0;
+        }
+
+        public void setFilterDropEnabled(boolean filterDropEnabled) {
+            setFlag(FLAG_FILTER_DROP, filterDropEnabled);
+        }
+
+        /**
+         * The junk filter as a bitset by material ordinal, or null if it is empty.
+         */
+        public long[] getFilter() {
+            return filter;
+        }
+
+        public boolean isFiltered(Material material) {
+            return hasBit(filter, material);
+        }
+
+        public int getFilteredCount() {
+            return countBits(filter);
+        }
+
+        /**
+         * Add a material to the junk filter or remove it.
+         *
+         * @return false if the filter already holds {@code limit} materials
+         */
+        public boolean setFiltered(Material material, boolean filtered, int limit) {
+            if (isFiltered(material) == filtered) {
+                return true;
+            }
+            if (filtered && getFilteredCount() >= limit) {
+                return false;
+            }
+            filter = withBit(filter, material, filtered);
+            return true;
+        }
+
+        /**
+         * Names of the filtered materials, as stored by the backends.
+         */
+        public List<String> getFilterNames() {
+            return names(filter);
+        }
+
+        /**
+         * Materials the player does not want auto smelted, as a bitset by
+         * ordinal, or null if every server-enabled item is smelted.
+         */
+        public long[] getSmeltSkip() {
+            return smeltSkip;
+        }
+
+        public boolean isSmeltSkipped(Material material) {
+            return hasBit(smeltSkip, material);
+        }
+
+        /**
+         * Exclude a material from the player's auto smelt or include it again.
+         *
+         * @return false if {@code limit} materials are already excluded
+         */
+        public boolean setSmeltSkipped(Material material, boolean skipped, int limit) {
+            if (isSmeltSkipped(material) == skipped) {
+                return true;
+            }
+            if (skipped && countBits(smeltSkip) >= limit) {
+                return false;
+            }
+            smeltSkip = withBit(smeltSkip, material, skipped);
+            return true;
+        }
+
+        /**
+         * Names of the materials excluded from auto smelt, as stored by the backends.
+         */
+        public List<String> getSmeltSkipNames() {
+            return names(smeltSkip);
+        }
+
+        // ===== Material bitsets =====
+
+        private static boolean hasBit(long[] bits, Material material) {
+            int ordinal = material.ordinal();
+            return bits != null && (bits[ordinal >>> 6] & (1L << ordinal)) != 0;
+        }
+
+        /**
+         * Copy of a bitset with one bit changed, or null if the copy is empty.
+         */
+        private static long[] withBit(long[] bits, Material material, boolean set) {
+            int ordinal = material.ordinal();
+            long[] changed = bits != null ? bits.clone() : new long[(MATERIALS.length + 63) >>> 6];
+            if (set) {
+                changed[ordinal >>> 6] |= 1L << ordinal;
+            } else {
+                changed[ordinal >>> 6] &= ~(1L << ordinal);
+            }
+            return countBits(changed) > 0 ? changed : null;
+        }
+
+        private static int countBits(long[] bits) {
+            int count = 0;
+            if (bits != null) {
+                for (long word : bits) {
+                    count += Long.bitCount(word);
+                }
+            }
+            return count;
+        }
+
+        private static List<String> names(long[] bits) {
+            if (bits == null) {
+                return List.of();
+            }
+            List<String> names = new ArrayList<>();
+            for (int word = 0; word < bits.length; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    names.add(MATERIALS[word * 64 + Long.numberOfTrailingZeros(remaining)].name());
+                    remaining &= remaining - 1;
+                }
+            }
+            return names;
         }
     }
 }
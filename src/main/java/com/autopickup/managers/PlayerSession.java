@@ -0,0 +1,216 @@
+package com.autopickup.managers;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Per-online-player state resolved ahead of time so the block break path
+ * only has to read fields instead of walking permissions or item meta.
+ */
+public class PlayerSession {
+
+    public static final int PERM_USE = 1;
+    public static final int PERM_CONVERTER = 1 << 1;
+    public static final int PERM_AUTOCONVERT = 1 << 2;
+    public static final int PERM_VEINMINER = 1 << 3;
+    public static final int PERM_MAGNET = 1 << 4;
+
+    private final int id;
+    private final UUID uuid;
+    private final Player player;
+
+    private int permissions;
+    // Number of items the overflow vault may hold, from the permission tier
+    private long vaultCapacity;
+    // Player settings, as PlayerData flags
+    private int settings;
+    // Junk filter bitset shared with PlayerData, null when empty
+    private long[] filter;
+    // Auto smelt output by input ordinal, with the player's exclusions applied
+    private Material[] smeltTable;
+    private boolean converterInOffhand;
+    private RegionGrid regions = RegionGrid.EMPTY;
+    // Storage slots by value, for priority mode
+    private final SlotIndex slotIndex = new SlotIndex();
+
+    private boolean accumulatorsLoaded;
+    private boolean accumulatorsDirty;
+
+    private boolean vaultLoaded;
+    private boolean vaultDirty;
+
+    PlayerSession(int id, Player player) {
+        this.id = id;
+        this.uuid = player.getUniqueId();
+        this.player = player;
+    }
+
+    /**
+     * Dense id of this session, reused after the player quits.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public UUID getUniqueId() {
+        return uuid;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public boolean hasPermission(int permission) {
+        return (permissions & permission) != 0;
+    }
+
+    void setPermissions(int permissions) {
+        this.permissions = permissions;
+    }
+
+    /**
+     * Number of items this player may keep in the overflow vault, 0 without access.
+     */
+    public long getVaultCapacity() {
+        return vaultCapacity;
+    }
+
+    void setVaultCapacity(long vaultCapacity) {
+        this.vaultCapacity = vaultCapacity;
+    }
+
+    public boolean canUse() {
+        return (permissions & PERM_USE) != 0;
+    }
+
+    public boolean isAutoPickupEnabled() {
+        return (settings & PlayerDataManager.PlayerData.FLAG_AUTO_PICKUP) != 0;
+    }
+
+    public boolean isAutoSmeltEnabled() {
+        return (settings & PlayerDataManager.PlayerData.FLAG_AUTO_SMELT) != 0;
+    }
+
+    /**
+     * Whether a setting flag from {@link PlayerDataManager.PlayerData} is enabled.
+     */
+    public boolean hasSetting(int flag) {
+        return (settings & flag) != 0;
+    }
+
+    void setSettings(int settings) {
+        this.settings = settings;
+    }
+
+    public boolean hasFilter() {
+        return filter != null;
+    }
+
+    /**
+     * Whether the player's junk filter contains a material.
+     */
+    public boolean isFiltered(Material material) {
+        int ordinal = material.ordinal();
+        return filter != null && (filter[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    void setFilter(long[] filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * The player's auto smelt table, see {@link SmeltingManager#getSmeltTable(long[])}.
+     */
+    public Material[] getSmeltTable() {
+        return smeltTable;
+    }
+
+    void setSmeltTable(Material[] smeltTable) {
+        this.smeltTable = smeltTable;
+    }
+
+    /**
+     * Region rules of the world the player is in.
+     */
+    public RegionGrid getRegions() {
+        return regions;
+    }
+
+    void setRegions(RegionGrid regions) {
+        this.regions = regions;
+    }
+
+    SlotIndex getSlotIndex() {
+        return slotIndex;
+    }
+
+    /**
+     * Let the slot index be rebuilt on its next use, e.g. after the player
+     * rearranged their inventory.
+     */
+    public void invalidateSlotIndex() {
+        slotIndex.invalidate();
+    }
+
+    public boolean isConverterInOffhand() {
+        return converterInOffhand;
+    }
+
+    void setConverterInOffhand(boolean converterInOffhand) {
+        this.converterInOffhand = converterInOffhand;
+    }
+
+    /**
+     * Whether the stored accumulators of this player have been loaded.
+     */
+    public boolean isAccumulatorsLoaded() {
+        return accumulatorsLoaded;
+    }
+
+    void setAccumulatorsLoaded(boolean accumulatorsLoaded) {
+        this.accumulatorsLoaded = accumulatorsLoaded;
+    }
+
+    /**
+     * Whether the accumulators changed since they were last saved.
+     */
+    public boolean isAccumulatorsDirty() {
+        return accumulatorsDirty;
+    }
+
+    void setAccumulatorsDirty(boolean accumulatorsDirty) {
+        this.accumulatorsDirty = accumulatorsDirty;
+    }
+
+    /**
+     * Whether the stored overflow vault of this player has been loaded.
+     */
+    public boolean isVaultLoaded() {
+        return vaultLoaded;
+    }
+
+    void setVaultLoaded(boolean vaultLoaded) {
+        this.vaultLoaded = vaultLoaded;
+    }
+
+    /**
+     * Whether the overflow vault changed since it was last saved.
+     */
+    public boolean isVaultDirty() {
+        return vaultDirty;
+    }
+
+    void setVaultDirty(boolean vaultDirty) {
+        this.vaultDirty = vaultDirty;
+    }
+
+    /**
+     * Whether the converter should be applied to drops: the player holds it
+     * in the offhand and is allowed to use it.
+     */
+    public boolean hasActiveConverter() {
+        return converterInOffhand && (permissions & PERM_CONVERTER) != 0;
+    }
+}
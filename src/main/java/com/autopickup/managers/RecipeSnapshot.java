@@ -0,0 +1,141 @@
+package com.autopickup.managers;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, versioned view of the converter recipes with an index from input
+ * material ordinal to the recipes using it. A new snapshot is published by
+ * {@link ConverterManager} whenever the recipes change, so readers can hold on
+ * to one without copying.
+ */
+public final class RecipeSnapshot {
+
+    private static final int MATERIAL_COUNT = Material.values().length;
+    private static final ConversionRecipe[] NO_RECIPES = new ConversionRecipe[0];
+
+    private final long version;
+    private final List<ConversionRecipe> recipes;
+    private final List<ConversionRecipe> activeRecipes;
+
+    // Input ordinal -> all recipes for that input, highest priority first
+    private final ConversionRecipe[][] byInput;
+
+    // Accumulator slot per distinct input: input ordinal -> slot (-1 if none), slot -> input
+    private final int[] slotByInput;
+    private final Material[] slotInputs;
+
+    RecipeSnapshot(long version, List<ConversionRecipe> source) {
+        this.version = version;
+        this.recipes = Collections.unmodifiableList(new ArrayList<>(source));
+        this.byInput = new ConversionRecipe[MATERIAL_COUNT][];
+
+        // Group by input, keeping list order for now
+        List<List<ConversionRecipe>> grouped = new ArrayList<>();
+        int[] groupByInput = new int[MATERIAL_COUNT];
+        Arrays.fill(groupByInput, -1);
+        for (ConversionRecipe recipe : recipes) {
+            int ordinal = recipe.getInputItem().ordinal();
+            if (groupByInput[ordinal] < 0) {
+                groupByInput[ordinal] = grouped.size();
+                grouped.add(new ArrayList<>());
+            }
+            grouped.get(groupByInput[ordinal]).add(recipe);
+        }
+
+        // Resolve each input by priority; the sort is stable so list order breaks ties
+        List<ConversionRecipe> active = new ArrayList<>(grouped.size());
+        for (List<ConversionRecipe> group : grouped) {
+            group.sort(Comparator.comparingInt(ConversionRecipe::getPriority).reversed());
+            ConversionRecipe[] candidates = group.toArray(NO_RECIPES);
+            byInput[candidates[0].getInputItem().ordinal()] = candidates;
+            active.add(candidates[0]);
+        }
+        active.sort(Comparator.comparingInt(ConversionRecipe::getPriority).reversed());
+        this.activeRecipes = Collections.unmodifiableList(active);
+
+        // One slot per active recipe, in active order
+        this.slotByInput = new int[MATERIAL_COUNT];
+        Arrays.fill(slotByInput, -1);
+        this.slotInputs = new Material[active.size()];
+        for (int slot = 0; slot < active.size(); slot++) {
+            Material input = active.get(slot).getInputItem();
+            slotByInput[input.ordinal()] = slot;
+            slotInputs[slot] = input;
+        }
+    }
+
+    /**
+     * Incremented every time the recipes change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * All recipes in configuration order (read-only).
+     */
+    public List<ConversionRecipe> getRecipes() {
+        return recipes;
+    }
+
+    /**
+     * The winning recipe for every distinct input, highest priority first (read-only).
+     */
+    public List<ConversionRecipe> getActiveRecipes() {
+        return activeRecipes;
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    public ConversionRecipe getRecipe(int index) {
+        if (index >= 0 && index < recipes.size()) {
+            return recipes.get(index);
+        }
+        return null;
+    }
+
+    /**
+     * Find the recipe with the highest priority for the given input.
+     */
+    public ConversionRecipe findRecipe(Material input) {
+        ConversionRecipe[] candidates = byInput[input.ordinal()];
+        return candidates != null ? candidates[0] : null;
+    }
+
+    /**
+     * Accumulator slot for the given input, or -1 if no recipe uses it.
+     */
+    public int getSlot(Material input) {
+        return slotByInput[input.ordinal()];
+    }
+
+    /**
+     * Input material stored in the given accumulator slot.
+     */
+    public Material getSlotInput(int slot) {
+        return slotInputs[slot];
+    }
+
+    /**
+     * Number of accumulator slots, one per distinct input.
+     */
+    public int getSlotCount() {
+        return slotInputs.length;
+    }
+
+    /**
+     * All recipes for the given input, highest priority first (read-only).
+     */
+    public List<ConversionRecipe> getCandidates(Material input) {
+        ConversionRecipe[] candidates = byInput[input.ordinal()];
+        return candidates != null ? Collections.unmodifiableList(Arrays.asList(candidates)) : Collections.emptyList();
+    }
+}
@@ -0,0 +1,192 @@
+package com.autopickup.managers;
+
+import com.autopickup.utils.LongIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled region rules of one world. Rules turn features ({@link #PICKUP},
+ * {@link #SMELT}, {@link #CONVERTER}) on or off: each has a mask of the
+ * features it decides and their values, and later (higher priority) rules
+ * override earlier ones.
+ * <p>
+ * Regions are indexed by the chunks they touch. A chunk that is completely
+ * covered by all its regions has their rules folded into one mask and value,
+ * so resolving a position there is a single hash probe and a bitmask merge;
+ * only chunks at region edges test the few regions overlapping them.
+ * Instances are immutable and replaced as a whole on reload.
+ */
+public final class RegionGrid {
+
+    public static final int PICKUP = 1;
+    public static final int SMELT = 1 << 1;
+    public static final int CONVERTER = 1 << 2;
+    public static final int ALL = PICKUP | SMELT | CONVERTER;
+
+    public static final RegionGrid EMPTY = new Builder(0, 0).build();
+
+    // Flags of positions outside every region, with the world rule applied
+    private final int baseFlags;
+    private final LongIntMap cellsByChunk;
+
+    // Per cell: folded rules of full-cover regions, or the regions to test
+    private final int[] cellMask;
+    private final int[] cellValue;
+    private final int[][] cellRegions;
+
+    // Per region, in priority order
+    private final int[] minX, minY, minZ, maxX, maxY, maxZ;
+    private final int[] regionMask;
+    private final int[] regionValue;
+
+    private RegionGrid(Builder builder) {
+        baseFlags = (ALL & ~builder.worldMask) | (builder.worldValue & builder.worldMask);
+
+        int count = builder.regions.size();
+        minX = new int[count];
+        minY = new int[count];
+        minZ = new int[count];
+        maxX = new int[count];
+        maxY = new int[count];
+        maxZ = new int[count];
+        regionMask = new int[count];
+        regionValue = new int[count];
+        // The list is sorted by priority, so region index order is merge order
+        for (int r = 0; r < count; r++) {
+            int[] region = builder.regions.get(r);
+            minX[r] = region[0];
+            minY[r] = region[1];
+            minZ[r] = region[2];
+            maxX[r] = region[3];
+            maxY[r] = region[4];
+            maxZ[r] = region[5];
+            regionMask[r] = region[6];
+            regionValue[r] = region[7] & region[6];
+        }
+
+        // Collect the regions per chunk
+        LongIntMap cells = new LongIntMap(64, -1);
+        List<List<Integer>> cellLists = new ArrayList<>();
+        List<Long> cellKeys = new ArrayList<>();
+        for (int r = 0; r < count; r++) {
+            for (int cx = minX[r] >> 4; cx <= maxX[r] >> 4; cx++) {
+                for (int cz = minZ[r] >> 4; cz <= maxZ[r] >> 4; cz++) {
+                    long key = chunkKey(cx, cz);
+                    int cell = cells.get(key);
+                    if (cell < 0) {
+                        cell = cellLists.size();
+                        cells.put(key, cell);
+                        cellLists.add(new ArrayList<>(2));
+                        cellKeys.add(key);
+                    }
+                    cellLists.get(cell).add(r);
+                }
+            }
+        }
+        cellsByChunk = cells;
+
+        int cellCount = cellLists.size();
+        cellMask = new int[cellCount];
+        cellValue = new int[cellCount];
+        cellRegions = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            long key = cellKeys.get(cell);
+            compileCell(cell, cellLists.get(cell), builder.fullHeight, (int) (key >> 32), (int) key);
+        }
+    }
+
+    private void compileCell(int cell, List<Integer> regions, List<Boolean> fullHeight, int cx, int cz) {
+        // Regions can be folded if they all contain the whole chunk column
+        boolean allFull = true;
+        int x0 = cx << 4;
+        int z0 = cz << 4;
+        for (int r : regions) {
+            if (!fullHeight.get(r) || minX[r] > x0 || maxX[r] < x0 + 15 || minZ[r] > z0 || maxZ[r] < z0 + 15) {
+                allFull = false;
+                break;
+            }
+        }
+
+        if (allFull) {
+            int mask = 0;
+            int value = 0;
+            for (int r : regions) {
+                value = (value & ~regionMask[r]) | regionValue[r];
+                mask |= regionMask[r];
+            }
+            cellMask[cell] = mask;
+            cellValue[cell] = value;
+        } else {
+            int[] list = new int[regions.size()];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = regions.get(i);
+            }
+            cellRegions[cell] = list;
+        }
+    }
+
+    /**
+     * Features enabled at a position, as a combination of {@link #PICKUP},
+     * {@link #SMELT} and {@link #CONVERTER}.
+     */
+    public int resolve(int x, int y, int z) {
+        int cell = cellsByChunk.get(chunkKey(x >> 4, z >> 4));
+        if (cell < 0) {
+            return baseFlags;
+        }
+        int[] regions = cellRegions[cell];
+        if (regions == null) {
+            return (baseFlags & ~cellMask[cell]) | cellValue[cell];
+        }
+
+        int flags = baseFlags;
+        for (int r : regions) {
+            if (x >= minX[r] && x <= maxX[r] && z >= minZ[r] && z <= maxZ[r] && y >= minY[r] && y <= maxY[r]) {
+                flags = (flags & ~regionMask[r]) | regionValue[r];
+            }
+        }
+        return flags;
+    }
+
+    public int getRegionCount() {
+        return regionMask.length;
+    }
+
+    public int getCellCount() {
+        return cellMask.length;
+    }
+
+    private static long chunkKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Collects the rules of one world. Regions must be added in priority order.
+     */
+    public static final class Builder {
+
+        private final int worldMask;
+        private final int worldValue;
+        private final List<int[]> regions = new ArrayList<>();
+        // Whether a region spans the full world height
+        private final List<Boolean> fullHeight = new ArrayList<>();
+
+        public Builder(int worldMask, int worldValue) {
+            this.worldMask = worldMask;
+            this.worldValue = worldValue;
+        }
+
+        public Builder addRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int mask, int value) {
+            regions.add(new int[]{
+                    Math.min(minX, maxX), Math.min(minY, maxY), Math.min(minZ, maxZ),
+                    Math.max(minX, maxX), Math.max(minY, maxY), Math.max(minZ, maxZ), mask, value});
+            fullHeight.add(minY == Integer.MIN_VALUE && maxY == Integer.MAX_VALUE);
+            return this;
+        }
+
+        public RegionGrid build() {
+            return new RegionGrid(this);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the per-world and per-region feature rules from the config and
+ * compiles them into one {@link RegionGrid} per world. Sessions keep the grid
+ * of the world their player is in, so the block break path never looks up the
+ * world itself.
+ */
+public class RegionManager {
+
+    // Larger regions would make the chunk index too big; use a world rule instead
+    private static final long MAX_REGION_CHUNKS = 1 << 20;
+
+    private static final String[] FEATURE_KEYS = {"auto-pickup", "auto-smelt", "converter"};
+    private static final int[] FEATURES = {RegionGrid.PICKUP, RegionGrid.SMELT, RegionGrid.CONVERTER};
+
+    private record Area(String world, int priority, int order,
+                        int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int mask, int value) {
+    }
+
+    private final AutoPickupPlugin plugin;
+    private Map<String, RegionGrid> grids = Map.of();
+    private int regionCount = 0;
+
+    public RegionManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("regions");
+        if (section == null || !section.getBoolean("enabled", true)) {
+            grids = Map.of();
+            regionCount = 0;
+            return;
+        }
+
+        // World rules
+        Map<String, int[]> worldRules = new HashMap<>();
+        ConfigurationSection worlds = section.getConfigurationSection("worlds");
+        if (worlds != null) {
+            for (String world : worlds.getKeys(false)) {
+                worldRules.put(world, readRules(worlds.getConfigurationSection(world)));
+            }
+        }
+
+        // Regions, sorted so that higher priorities are merged last
+        List<Area> areas = new ArrayList<>();
+        ConfigurationSection regions = section.getConfigurationSection("areas");
+        if (regions != null) {
+            for (String name : regions.getKeys(false)) {
+                Area area = readArea(name, regions.getConfigurationSection(name), areas.size());
+                if (area != null) {
+                    areas.add(area);
+                }
+            }
+        }
+        areas.sort(Comparator.comparingInt(Area::priority).thenComparingInt(Area::order));
+
+        Map<String, RegionGrid.Builder> builders = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : worldRules.entrySet()) {
+            builders.put(entry.getKey(), new RegionGrid.Builder(entry.getValue()[0], entry.getValue()[1]));
+        }
+        for (Area area : areas) {
+            builders.computeIfAbsent(area.world(), world -> new RegionGrid.Builder(0, 0))
+                    .addRegion(area.minX(), area.minY(), area.minZ(), area.maxX(), area.maxY(), area.maxZ(),
+                            area.mask(), area.value());
+        }
+
+        Map<String, RegionGrid> compiled = new HashMap<>();
+        for (Map.Entry<String, RegionGrid.Builder> entry : builders.entrySet()) {
+            compiled.put(entry.getKey(), entry.getValue().build());
+        }
+        grids = compiled;
+        regionCount = areas.size();
+    }
+
+    /**
+     * @return mask of the features the section sets, and their values
+     */
+    private int[] readRules(ConfigurationSection section) {
+        int mask = 0;
+        int value = 0;
+        for (int i = 0; i < FEATURE_KEYS.length; i++) {
+            if (section != null && section.isBoolean(FEATURE_KEYS[i])) {
+                mask |= FEATURES[i];
+                if (section.getBoolean(FEATURE_KEYS[i])) {
+                    value |= FEATURES[i];
+                }
+            }
+        }
+        return new int[]{mask, value};
+    }
+
+    private Area readArea(String name, ConfigurationSection section, int order) {
+        if (section == null) {
+            return null;
+        }
+        String world = section.getString("world");
+        List<Integer> min = section.getIntegerList("min");
+        List<Integer> max = section.getIntegerList("max");
+        // [x, z] spans the full height, [x, y, z] is a cuboid
+        if (world == null || min.size() != max.size() || (min.size() != 2 && min.size() != 3)) {
+            plugin.getLogger().warning("Region " + name + " needs a world and min/max as [x, z] or [x, y, z], skipping");
+            return null;
+        }
+
+        int minX = Math.min(min.get(0), max.get(0));
+        int maxX = Math.max(min.get(0), max.get(0));
+        int minZ = Math.min(min.get(min.size() - 1), max.get(max.size() - 1));
+        int maxZ = Math.max(min.get(min.size() - 1), max.get(max.size() - 1));
+        int minY = min.size() == 3 ? Math.min(min.get(1), max.get(1)) : Integer.MIN_VALUE;
+        int maxY = min.size() == 3 ? Math.max(min.get(1), max.get(1)) : Integer.MAX_VALUE;
+
+        long chunks = ((long) (maxX >> 4) - (minX >> 4) + 1) * ((long) (maxZ >> 4) - (minZ >> 4) + 1);
+        if (chunks > MAX_REGION_CHUNKS) {
+            plugin.getLogger().warning("Region " + name + " covers " + chunks + " chunks, use a world rule instead. Skipping");
+            return null;
+        }
+
+        int[] rules = readRules(section);
+        return new Area(world, section.getInt("priority", 0), order,
+                minX, minY, minZ, maxX, maxY, maxZ, rules[0], rules[1]);
+    }
+
+    /**
+     * The compiled rules of a world, {@link RegionGrid#EMPTY} if it has none.
+     */
+    public RegionGrid getGrid(World world) {
+        return grids.getOrDefault(world.getName(), RegionGrid.EMPTY);
+    }
+
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    public int getWorldCount() {
+        return grids.size();
+    }
+}
@@ -0,0 +1,191 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps a {@link PlayerSession} for every online player. Sessions are created on
+ * join, dropped on quit and kept current by {@link com.autopickup.listeners.PlayerSessionListener}.
+ */
+public class SessionManager {
+
+    private final AutoPickupPlugin plugin;
+    private final Map<UUID, PlayerSession> sessions = new HashMap<>();
+    private final Collection<PlayerSession> sessionView = Collections.unmodifiableCollection(sessions.values());
+
+    // Dense id allocation - ids of players that left are handed out again
+    private PlayerSession[] sessionsById = new PlayerSession[64];
+    private int[] freeIds = new int[16];
+    private int freeCount = 0;
+    private int nextId = 0;
+
+    public SessionManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Create sessions for players that are already online (e.g. after a reload).
+     */
+    public void createOnlineSessions() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            createSession(player);
+        }
+    }
+
+    public PlayerSession createSession(Player player) {
+        PlayerSession existing = sessions.get(player.getUniqueId());
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id >= sessionsById.length) {
+            sessionsById = Arrays.copyOf(sessionsById, Math.max(id + 1, sessionsById.length * 2));
+        }
+
+        PlayerSession session = new PlayerSession(id, player);
+        sessionsById[id] = session;
+        sessions.put(player.getUniqueId(), session);
+
+        // Settings are normally preloaded during async pre-login
+        plugin.getPlayerDataManager().loadOnline(player.getUniqueId());
+
+        refreshPermissions(session);
+        refreshSettings(session);
+        refreshOffhand(session);
+        refreshRegions(session);
+
+        // Stored converter progress is loaded off the main thread
+        plugin.getConverterManager().loadAccumulators(session);
+        plugin.getVaultManager().load(session);
+        return session;
+    }
+
+    public PlayerSession removeSession(UUID uuid) {
+        PlayerSession session = sessions.remove(uuid);
+        if (session == null) {
+            return null;
+        }
+
+        sessionsById[session.getId()] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        freeIds[freeCount++] = session.getId();
+        return session;
+    }
+
+    public void clear() {
+        sessions.clear();
+        Arrays.fill(sessionsById, null);
+        freeCount = 0;
+        nextId = 0;
+    }
+
+    public PlayerSession getSession(Player player) {
+        return sessions.get(player.getUniqueId());
+    }
+
+    public PlayerSession getSession(UUID uuid) {
+        return sessions.get(uuid);
+    }
+
+    public PlayerSession getSession(int id) {
+        return id >= 0 && id < sessionsById.length ? sessionsById[id] : null;
+    }
+
+    /**
+     * Read-only view of all online sessions.
+     */
+    public Collection<PlayerSession> getSessions() {
+        return sessionView;
+    }
+
+    /**
+     * Upper bound (exclusive) of the session ids handed out so far.
+     */
+    public int getIdCapacity() {
+        return nextId;
+    }
+
+    // ===== Refreshing cached state =====
+
+    public void refreshPermissions(PlayerSession session) {
+        Player player = session.getPlayer();
+        int permissions = 0;
+        if (player.hasPermission("autopickup.use")) {
+            permissions |= PlayerSession.PERM_USE;
+        }
+        if (player.hasPermission("autopickup.converter")) {
+            permissions |= PlayerSession.PERM_CONVERTER;
+        }
+        if (player.hasPermission("autopickup.autoconvert")) {
+            permissions |= PlayerSession.PERM_AUTOCONVERT;
+        }
+        if (player.hasPermission("autopickup.veinminer")) {
+            permissions |= PlayerSession.PERM_VEINMINER;
+        }
+        if (player.hasPermission("autopickup.magnet")) {
+            permissions |= PlayerSession.PERM_MAGNET;
+        }
+        session.setPermissions(permissions);
+        session.setVaultCapacity(plugin.getVaultManager().resolveCapacity(player));
+    }
+
+    public void refreshSettings(PlayerSession session) {
+        PlayerDataManager.PlayerData data = plugin.getPlayerDataManager().getPlayerData(session.getUniqueId());
+        session.setSettings(data.getFlags());
+        session.setFilter(data.getFilter());
+        session.setSmeltTable(plugin.getSmeltingManager().getSmeltTable(data.getSmeltSkip()));
+    }
+
+    /**
+     * Push changed settings into the session of an online player, if there is one.
+     */
+    public void updateSettings(UUID uuid, PlayerDataManager.PlayerData data) {
+        PlayerSession session = sessions.get(uuid);
+        if (session != null) {
+            session.setSettings(data.getFlags());
+            session.setFilter(data.getFilter());
+            session.setSmeltTable(plugin.getSmeltingManager().getSmeltTable(data.getSmeltSkip()));
+        }
+    }
+
+    public void refreshOffhand(PlayerSession session) {
+        Player player = session.getPlayer();
+        session.setConverterInOffhand(plugin.getOreConverterItem().isConverterItem(player.getInventory().getItemOffHand()));
+    }
+
+    public void refreshRegions(PlayerSession session) {
+        session.setRegions(plugin.getRegionManager().getGrid(session.getPlayer().getWorld()));
+    }
+
+    /**
+     * Re-resolve everything for every online player (used on reload).
+     */
+    public void refreshAll() {
+        for (PlayerSession session : sessions.values()) {
+            refreshPermissions(session);
+            refreshSettings(session);
+            refreshOffhand(session);
+            refreshRegions(session);
+        }
+    }
+
+    /**
+     * Recompute the auto smelt tables of all sessions after the server's smelt items changed.
+     */
+    public void refreshSmeltTables() {
+        for (PlayerSession session : sessions.values()) {
+            refreshSettings(session);
+        }
+    }
+}
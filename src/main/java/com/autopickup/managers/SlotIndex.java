@@ -0,0 +1,145 @@
+package com.autopickup.managers;
+
+import com.autopickup.utils.InventoryUtils;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap over a player's storage slots by the value of what each slot holds,
+ * so the least valuable stack is found in O(log n) instead of scanning the
+ * inventory for every drop. Updated as stacks are replaced.
+ * <p>
+ * Entries remember the material they were made for and are checked against
+ * the slot when they reach the top. A mismatch means the inventory changed
+ * behind the index's back, and the heap is rebuilt from the slots. Checked
+ * entries are always current, so a slot is never replaced based on stale data.
+ * Main thread only.
+ */
+final class SlotIndex {
+
+    // Value of an empty slot, so free slots come up first
+    static final int EMPTY_VALUE = Integer.MIN_VALUE;
+
+    // Entries are packed: value (high 32 bits), material ordinal + 1 (bits 8-31), slot (bits 0-7)
+    private long[] heap = new long[64];
+    private int size = 0;
+    private boolean valid = false;
+
+    boolean isValid() {
+        return valid;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Index the slots from the given one to the end of the storage contents.
+     * Slots whose material is worth {@code protectedValue} or that hold custom
+     * items are left out, so they are never replaced.
+     */
+    void rebuild(PlayerInventory inventory, int firstSlot, int[] values, int protectedValue) {
+        size = 0;
+        int end = inventory.getStorageContents().length;
+        for (int slot = firstSlot; slot < end; slot++) {
+            ItemStack item = inventory.getItem(slot);
+            if (item == null || item.getType().isAir()) {
+                add(pack(EMPTY_VALUE, -1, slot));
+            } else if (values[item.getType().ordinal()] != protectedValue && !InventoryUtils.hasCustomData(item)) {
+                add(pack(values[item.getType().ordinal()], item.getType().ordinal(), slot));
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        valid = true;
+    }
+
+    /**
+     * Take the least valuable slot if it is worth less than the given value.
+     *
+     * @return the slot, or -1 if every indexed slot is worth at least that much
+     */
+    int pollBelow(PlayerInventory inventory, int value, int firstSlot, int[] values, int protectedValue) {
+        boolean rebuilt = false;
+        while (size > 0) {
+            long top = heap[0];
+            int slot = (int) (top & 0xFF);
+            int ordinal = (int) ((top >>> 8) & 0xFFFFFF) - 1;
+            ItemStack item = inventory.getItem(slot);
+            int current = item == null || item.getType().isAir() ? -1 : item.getType().ordinal();
+            if (current != ordinal) {
+                if (rebuilt) {
+                    // Cannot happen right after a rebuild, but never loop on it
+                    poll();
+                } else {
+                    rebuild(inventory, firstSlot, values, protectedValue);
+                    rebuilt = true;
+                }
+                continue;
+            }
+            if ((int) (top >> 32) >= value) {
+                return -1;
+            }
+            poll();
+            return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Index a slot that now holds the given material with the given value.
+     */
+    void push(int slot, int ordinal, int value) {
+        add(pack(value, ordinal, slot));
+        siftUp(size - 1);
+    }
+
+    private void add(long entry) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size++] = entry;
+    }
+
+    private void poll() {
+        heap[0] = heap[--size];
+        siftDown(0);
+    }
+
+    private void siftUp(int i) {
+        long entry = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    private void siftDown(int i) {
+        long entry = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (entry <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = entry;
+    }
+
+    private static long pack(int value, int ordinal, int slot) {
+        return ((long) value << 32) | ((long) (ordinal + 1) << 8) | slot;
+    }
+}
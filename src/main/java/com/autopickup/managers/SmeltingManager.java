@@ -4,24 +4,64 @@ import com.autopickup.AutoPickupPlugin;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 public class SmeltingManager {
 
+    private static final int MATERIAL_COUNT = Material.values().length;
+    // Interned personal tables kept before the cache starts over
+    private static final int MAX_PERSONAL_TABLES = 1024;
+
+    // Exclusion bitset of a player, compared by content
+    private record Selection(long[] skipped) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Selection selection && Arrays.equals(skipped, selection.skipped);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(skipped);
+        }
+    }
+
     private final AutoPickupPlugin plugin;
     private final Map<Material, Material> smeltingRecipes;
     private final Set<Material> enabledItems;
 
+    // Read-only views handed out instead of defensive copies
+    private final Map<Material, Material> smeltingRecipesView;
+    private final Set<Material> enabledItemsView;
+
+    // Recipe output by input ordinal, regardless of whether it is enabled
+    private final Material[] recipeTable = new Material[MATERIAL_COUNT];
+
+    // Compiled table: output by input ordinal for enabled recipes only, null otherwise.
+    // Never modified after publishing - changes swap in a new array.
+    private volatile Material[] smeltTable = new Material[MATERIAL_COUNT];
+
+    // Compiled tables of players' personal selections: the server table minus
+    // their exclusions. Players with the same exclusions share one table.
+    private final Map<Selection, Material[]> personalTables = new HashMap<>();
+
     public SmeltingManager(AutoPickupPlugin plugin) {
         this.plugin = plugin;
-        this.smeltingRecipes = new HashMap<>();
-        this.enabledItems = new HashSet<>();
+        this.smeltingRecipes = new EnumMap<>(Material.class);
+        this.enabledItems = EnumSet.noneOf(Material.class);
+        this.smeltingRecipesView = Collections.unmodifiableMap(smeltingRecipes);
+        this.enabledItemsView = Collections.unmodifiableSet(enabledItems);
 
         initializeSmeltingRecipes();
+        for (Map.Entry<Material, Material> entry : smeltingRecipes.entrySet()) {
+            recipeTable[entry.getKey().ordinal()] = entry.getValue();
+        }
         loadConfig();
     }
 
@@ -88,6 +128,7 @@ public class SmeltingManager {
                 plugin.getLogger().warning("Invalid material in config: " + item);
             }
         }
+        compileSmeltTable();
         plugin.getLogger().info("Loaded " + enabledItems.size() + " enabled auto-smelt items.");
     }
 
@@ -100,22 +141,100 @@ public class SmeltingManager {
         plugin.getLogger().info("Saved " + enabledItems.size() + " enabled auto-smelt items to config.");
     }
 
+    /**
+     * Rebuild the compiled smelt table from the recipes and enabled items and publish it.
+     */
+    private void compileSmeltTable() {
+        Material[] table = new Material[MATERIAL_COUNT];
+        for (Material material : enabledItems) {
+            table[material.ordinal()] = recipeTable[material.ordinal()];
+        }
+        smeltTable = table;
+
+        // Personal tables are intersections with the old server table
+        personalTables.clear();
+        if (plugin.getSessionManager() != null) {
+            plugin.getSessionManager().refreshSmeltTables();
+        }
+    }
+
+    /**
+     * The smelt table of a player who excluded the given materials (a bitset
+     * by ordinal, null for none): output by input ordinal for every
+     * server-enabled item the player did not exclude, null otherwise. The same
+     * exclusions always give the same instance. Main thread only.
+     */
+    public Material[] getSmeltTable(long[] skipped) {
+        if (skipped == null) {
+            return smeltTable;
+        }
+        Selection selection = new Selection(skipped);
+        Material[] table = personalTables.get(selection);
+        if (table == null) {
+            if (personalTables.size() >= MAX_PERSONAL_TABLES) {
+                // Sessions keep their tables; only new lookups stop sharing
+                personalTables.clear();
+            }
+            table = compilePersonalTable(skipped);
+            personalTables.put(selection, table);
+        }
+        return table;
+    }
+
+    private Material[] compilePersonalTable(long[] skipped) {
+        Material[] table = null;
+        for (int word = 0; word < skipped.length; word++) {
+            long bits = skipped[word];
+            while (bits != 0) {
+                int ordinal = word * 64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (smeltTable[ordinal] != null) {
+                    if (table == null) {
+                        table = smeltTable.clone();
+                    }
+                    table[ordinal] = null;
+                }
+            }
+        }
+        // Exclusions of items the server doesn't smelt change nothing
+        return table != null ? table : smeltTable;
+    }
+
     public boolean canSmelt(Material material) {
-        return smeltingRecipes.containsKey(material) && enabledItems.contains(material);
+        return smeltTable[material.ordinal()] != null;
     }
 
     public Material getSmeltedMaterial(Material material) {
-        return smeltingRecipes.get(material);
+        return recipeTable[material.ordinal()];
     }
 
     public ItemStack getSmeltedItem(ItemStack item) {
-        Material smelted = smeltingRecipes.get(item.getType());
+        Material smelted = recipeTable[item.getType().ordinal()];
         if (smelted != null) {
             return new ItemStack(smelted, item.getAmount());
         }
         return item;
     }
 
+    /**
+     * Smelt an item if auto smelt is enabled for its type. Returns the given stack
+     * itself when nothing has to change, so non-smeltable drops do not allocate.
+     */
+    public ItemStack smelt(ItemStack item) {
+        return smelt(smeltTable, item);
+    }
+
+    /**
+     * Smelt an item with a table from {@link #getSmeltTable(long[])}.
+     */
+    public static ItemStack smelt(Material[] table, ItemStack item) {
+        Material smelted = table[item.getType().ordinal()];
+        if (smelted == null || smelted == item.getType()) {
+            return item;
+        }
+        return new ItemStack(smelted, item.getAmount());
+    }
+
     public boolean isItemEnabled(Material material) {
         return enabledItems.contains(material);
     }
@@ -126,28 +245,40 @@ public class SmeltingManager {
         } else {
             enabledItems.add(material);
         }
+        compileSmeltTable();
         saveConfig();
     }
 
     public void enableItem(Material material) {
         enabledItems.add(material);
+        compileSmeltTable();
         saveConfig();
     }
 
     public void disableItem(Material material) {
         enabledItems.remove(material);
+        compileSmeltTable();
         saveConfig();
     }
 
+    /**
+     * Read-only view of the enabled items.
+     */
     public Set<Material> getEnabledItems() {
-        return new HashSet<>(enabledItems);
+        return enabledItemsView;
     }
 
+    /**
+     * Read-only view of all items that have a smelting recipe.
+     */
     public Set<Material> getAllSmeltableItems() {
-        return new HashSet<>(smeltingRecipes.keySet());
+        return smeltingRecipesView.keySet();
     }
 
+    /**
+     * Read-only view of all smelting recipes (input -> output).
+     */
     public Map<Material, Material> getSmeltingRecipes() {
-        return new HashMap<>(smeltingRecipes);
+        return smeltingRecipesView;
     }
 }
@@ -0,0 +1,344 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+import com.autopickup.storage.MaterialPalette;
+import com.autopickup.storage.CounterStorage;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.IllegalPluginAccessException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Virtual overflow vault: items that do not fit in a player's inventory are
+ * counted per material instead of being deleted or dropped, and taken out
+ * again through the vault GUI. Only plain items (no item meta at all) are
+ * stored, since they can be rebuilt from their material alone.
+ * <p>
+ * Counters are primitive long rows indexed by session id and material ordinal.
+ * How much a player can keep is capped by their permission tier, resolved
+ * into the session with the other permissions. Main thread only; stored like
+ * the converter accumulators, see {@link CounterStorage}.
+ */
+public class VaultManager {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private final AutoPickupPlugin plugin;
+    private final CounterStorage storage;
+    private boolean enabled;
+    // Tier permission suffixes and capacities, "default" needs only autopickup.vault
+    private String[] tierNames = new String[0];
+    private long[] tierCapacities = new long[0];
+
+    // Stored amounts by session id and material ordinal, null when never used
+    private long[][] rows = new long[64][];
+    private long[] totals = new long[64];
+
+    // Statistics
+    private long storedItems = 0;
+    private long withdrawnItems = 0;
+
+    public VaultManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        this.storage = new CounterStorage(plugin.getDataFolder().toPath().resolve("vault"),
+                'V', "vault", plugin.getIoExecutor(), plugin.getLogger());
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        enabled = plugin.getConfig().getBoolean("auto-pickup.vault.enabled", true);
+
+        List<String> names = new ArrayList<>();
+        List<Long> capacities = new ArrayList<>();
+        ConfigurationSection tiers = plugin.getConfig().getConfigurationSection("auto-pickup.vault.tiers");
+        if (tiers != null) {
+            for (String name : tiers.getKeys(false)) {
+                names.add(name);
+                capacities.add(Math.max(0, tiers.getLong(name)));
+            }
+        } else {
+            names.add("default");
+            capacities.add(1728L);
+        }
+        tierNames = names.toArray(new String[0]);
+        tierCapacities = new long[capacities.size()];
+        for (int i = 0; i < tierCapacities.length; i++) {
+            tierCapacities[i] = capacities.get(i);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Number of items a player can keep in their vault: the largest tier they
+     * have a permission for, 0 without {@code autopickup.vault}.
+     */
+    long resolveCapacity(Player player) {
+        if (!player.hasPermission("autopickup.vault")) {
+            return 0;
+        }
+        long capacity = 0;
+        for (int i = 0; i < tierNames.length; i++) {
+            if (tierCapacities[i] > capacity
+                    && (tierNames[i].equals("default") || player.hasPermission("autopickup.vault." + tierNames[i]))) {
+                capacity = tierCapacities[i];
+            }
+        }
+        return capacity;
+    }
+
+    // ===== Deposit and withdraw =====
+
+    /**
+     * Count items that did not fit into the player's vault, as far as it has
+     * room. Nothing is taken before the stored vault has been loaded, since
+     * the room left can't be known until then.
+     *
+     * @return what is still left over: items with meta and what exceeded the cap
+     */
+    public Collection<ItemStack> deposit(PlayerSession session, Collection<ItemStack> leftovers) {
+        if (!enabled || !session.isVaultLoaded()) {
+            return leftovers;
+        }
+        long room = session.getVaultCapacity() - getTotal(session);
+        if (room <= 0) {
+            return leftovers;
+        }
+
+        int id = session.getId();
+        long[] row = row(id);
+        long before = room;
+        List<ItemStack> remaining = new ArrayList<>(0);
+        for (ItemStack item : leftovers) {
+            if (item.hasItemMeta() || room <= 0) {
+                remaining.add(item);
+                continue;
+            }
+            int amount = (int) Math.min(room, item.getAmount());
+            row[item.getType().ordinal()] += amount;
+            room -= amount;
+            totals[id] += amount;
+            storedItems += amount;
+            if (amount < item.getAmount()) {
+                ItemStack rest = item.clone();
+                rest.setAmount(item.getAmount() - amount);
+                remaining.add(rest);
+            }
+        }
+        if (room < before) {
+            session.setVaultDirty(true);
+        }
+        return remaining;
+    }
+
+    /**
+     * Move up to the given amount of a material from the vault into the
+     * player's inventory. Stacks are only built here; what does not fit stays
+     * in the vault.
+     *
+     * @return the number of items moved
+     */
+    public int withdraw(PlayerSession session, Material material, int amount) {
+        int id = session.getId();
+        long[] row = id < rows.length ? rows[id] : null;
+        if (row == null || row[material.ordinal()] <= 0 || amount <= 0) {
+            return 0;
+        }
+
+        int taken = (int) Math.min(amount, row[material.ordinal()]);
+        int max = Math.max(1, material.getMaxStackSize());
+        List<ItemStack> stacks = new ArrayList<>(taken / max + 1);
+        for (int left = taken; left > 0; left -= max) {
+            stacks.add(new ItemStack(material, Math.min(left, max)));
+        }
+        Map<Integer, ItemStack> leftover = session.getPlayer().getInventory().addItem(stacks.toArray(new ItemStack[0]));
+        for (ItemStack stack : leftover.values()) {
+            taken -= stack.getAmount();
+        }
+
+        row[material.ordinal()] -= taken;
+        totals[id] -= taken;
+        withdrawnItems += taken;
+        if (taken > 0) {
+            session.setVaultDirty(true);
+        }
+        return taken;
+    }
+
+    public long getStored(PlayerSession session, Material material) {
+        int id = session.getId();
+        long[] row = id < rows.length ? rows[id] : null;
+        return row != null ? row[material.ordinal()] : 0;
+    }
+
+    public long getTotal(PlayerSession session) {
+        int id = session.getId();
+        return id < totals.length ? totals[id] : 0;
+    }
+
+    /**
+     * Materials in a player's vault, in material order.
+     */
+    public List<Material> getContents(PlayerSession session) {
+        List<Material> contents = new ArrayList<>();
+        int id = session.getId();
+        long[] row = id < rows.length ? rows[id] : null;
+        if (row != null) {
+            for (int ordinal = 0; ordinal < row.length; ordinal++) {
+                if (row[ordinal] > 0) {
+                    contents.add(MATERIALS[ordinal]);
+                }
+            }
+        }
+        return contents;
+    }
+
+    private long[] row(int id) {
+        if (id >= rows.length) {
+            int capacity = Math.max(id + 1, rows.length * 2);
+            rows = Arrays.copyOf(rows, capacity);
+            totals = Arrays.copyOf(totals, capacity);
+        }
+        long[] row = rows[id];
+        if (row == null) {
+            row = new long[MATERIALS.length];
+            rows[id] = row;
+        }
+        return row;
+    }
+
+    private void clear(int id) {
+        if (id < rows.length) {
+            rows[id] = null;
+            totals[id] = 0;
+        }
+    }
+
+    // ===== Persistence =====
+
+    /**
+     * Load a player's stored vault off the main thread and add it to the
+     * session once read. Items stored in the meantime are kept. If the stored
+     * file can't be read the session is never marked loaded, so new items are
+     * merged into storage on quit instead of replacing the file.
+     */
+    public void load(PlayerSession session) {
+        storage.load(session.getUniqueId()).whenComplete((entries, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Could not load vault of " + session.getUniqueId() + ": " + error.getMessage());
+                return;
+            }
+            try {
+                plugin.getServer().getScheduler().runTask(plugin, () -> applyLoaded(session, entries));
+            } catch (IllegalPluginAccessException e) {
+                // Plugin is disabling - the session is saved by onDisable
+            }
+        });
+    }
+
+    private void applyLoaded(PlayerSession session, CounterStorage.Entries entries) {
+        // Player already left - their vault was merged into storage on quit
+        if (plugin.getSessionManager().getSession(session.getUniqueId()) != session) {
+            return;
+        }
+
+        if (entries.size() > 0) {
+            MaterialPalette palette = storage.getPalette();
+            long[] row = row(session.getId());
+            for (int i = 0; i < entries.size(); i++) {
+                Material material = palette.get(entries.ids()[i]);
+                if (material != null) {
+                    row[material.ordinal()] += entries.amounts()[i];
+                    totals[session.getId()] += entries.amounts()[i];
+                }
+            }
+        }
+        session.setVaultLoaded(true);
+    }
+
+    /**
+     * Queue a write of a player's vault if it changed since the last save.
+     */
+    public void save(PlayerSession session) {
+        if (!session.isVaultDirty()) {
+            return;
+        }
+
+        int id = session.getId();
+        long[] row = id < rows.length ? rows[id] : null;
+        int[] ids = new int[0];
+        long[] amounts = new long[0];
+        int size = 0;
+        if (row != null) {
+            MaterialPalette palette = storage.getPalette();
+            ids = new int[16];
+            amounts = new long[16];
+            for (int ordinal = 0; ordinal < row.length; ordinal++) {
+                if (row[ordinal] > 0) {
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, size * 2);
+                        amounts = Arrays.copyOf(amounts, size * 2);
+                    }
+                    ids[size] = palette.idOf(MATERIALS[ordinal]);
+                    amounts[size++] = row[ordinal];
+                }
+            }
+        }
+
+        if (session.isVaultLoaded()) {
+            storage.save(session.getUniqueId(), ids, amounts, size);
+        } else if (size > 0) {
+            // Stored vault was never added in, so add on top of it instead of
+            // replacing, and don't count these items again on the next save
+            storage.merge(session.getUniqueId(), ids, amounts, size);
+            clear(id);
+        }
+        session.setVaultDirty(false);
+    }
+
+    /**
+     * Periodic flush: save changed vaults of every session. Sessions whose
+     * stored vault is not loaded are merged into storage.
+     */
+    public void saveDirty() {
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            save(session);
+        }
+    }
+
+    /**
+     * Save and drop a player's vault when they leave.
+     */
+    public void unload(PlayerSession session) {
+        save(session);
+        clear(session.getId());
+    }
+
+    /**
+     * Save the vaults of every online player (used on disable).
+     */
+    public void saveAll() {
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            save(session);
+        }
+    }
+
+    // ===== Statistics =====
+
+    public long getStoredItems() {
+        return storedItems;
+    }
+
+    public long getWithdrawnItems() {
+        return withdrawnItems;
+    }
+}
@@ -0,0 +1,345 @@
+package com.autopickup.managers;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.Material;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Breaks the connected blocks of an ore vein or tree after the player breaks
+ * one of them. The vein is walked breadth-first, bounded by a maximum size,
+ * and spread over the following ticks: all active veins share one per-tick
+ * block budget, taken in turns. Each block is broken through
+ * {@link Player#breakBlock(Block)}, so protection plugins and tool durability
+ * apply as usual; its drops and experience are collected and the whole vein
+ * goes through the pickup pipeline as one batch once it is done.
+ */
+public class VeinMinerManager {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private static final class Vein {
+        final PlayerSession session;
+        final World world;
+        final int group;
+        final Material tool;
+        // Region rules at the first block, applied to the whole vein
+        final int rules;
+        // Packed positions still to break, in breadth-first order
+        final long[] queue;
+        int head = 0;
+        int tail = 0;
+        final Set<Long> seen = new HashSet<>();
+        final DropBatch drops = new DropBatch();
+        int exp = 0;
+
+        Vein(PlayerSession session, World world, int group, Material tool, int rules, int capacity) {
+            this.session = session;
+            this.world = world;
+            this.group = group;
+            this.tool = tool;
+            this.rules = rules;
+            this.queue = new long[capacity];
+        }
+    }
+
+    private final AutoPickupPlugin plugin;
+    private boolean enabled;
+    private boolean requireSneak;
+    private int maxBlocks;
+    private int blocksPerTick;
+    // Vein group by material ordinal, -1 if the material is not vein mined
+    private final int[] groups = new int[MATERIALS.length];
+
+    private final List<Vein> veins = new ArrayList<>();
+    private Vein[] veinsBySession = new Vein[64];
+    private int cursor = 0;
+    // Vein whose block is being broken right now, see isBreaking()
+    private Vein breaking;
+
+    // Statistics
+    private long veinsStarted = 0;
+    private long blocksBroken = 0;
+
+    public VeinMinerManager(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+        loadConfig();
+    }
+
+    public void loadConfig() {
+        enabled = plugin.getConfig().getBoolean("vein-miner.enabled", true);
+        requireSneak = plugin.getConfig().getBoolean("vein-miner.require-sneak", true);
+        maxBlocks = Math.max(2, plugin.getConfig().getInt("vein-miner.max-blocks", 64));
+        blocksPerTick = Math.max(1, plugin.getConfig().getInt("vein-miner.blocks-per-tick", 16));
+
+        Arrays.fill(groups, -1);
+        List<String> configured = plugin.getConfig().getStringList("vein-miner.blocks");
+        List<Material> materials = new ArrayList<>();
+        if (configured.isEmpty()) {
+            for (Material material : MATERIALS) {
+                if (!material.isLegacy() && (material.name().endsWith("_ORE") || material == Material.ANCIENT_DEBRIS
+                        || Tag.LOGS.isTagged(material))) {
+                    materials.add(material);
+                }
+            }
+        } else {
+            for (String name : configured) {
+                Material material = Material.matchMaterial(name);
+                if (material != null && material.isBlock()) {
+                    materials.add(material);
+                } else {
+                    plugin.getLogger().warning("Unknown vein miner block: " + name);
+                }
+            }
+        }
+
+        // Deepslate variants belong to the same vein as the stone ones
+        Map<String, Integer> groupIds = new HashMap<>();
+        for (Material material : materials) {
+            String key = material.name().replace("DEEPSLATE_", "");
+            Integer group = groupIds.get(key);
+            if (group == null) {
+                group = groupIds.size();
+                groupIds.put(key, group);
+            }
+            groups[material.ordinal()] = group;
+        }
+    }
+
+    /**
+     * Start a vein from a block the player just broke, if vein mining applies.
+     * The block's own drops and experience become part of the vein.
+     *
+     * @return true if a vein was started and took the drops
+     */
+    public boolean start(PlayerSession session, Block origin, Collection<ItemStack> drops, int exp, int rules) {
+        if (!enabled || breaking != null
+                || !session.hasPermission(PlayerSession.PERM_VEINMINER)
+                || !session.hasSetting(PlayerDataManager.PlayerData.FLAG_VEIN_MINER)) {
+            return false;
+        }
+        int group = groups[origin.getType().ordinal()];
+        Player player = session.getPlayer();
+        if (group < 0 || (requireSneak && !player.isSneaking())) {
+            return false;
+        }
+        int id = session.getId();
+        if (id < veinsBySession.length && veinsBySession[id] != null) {
+            // One vein per player at a time
+            return false;
+        }
+        ItemStack tool = player.getInventory().getItemInMainHand();
+        if (!origin.isPreferredTool(tool)) {
+            return false;
+        }
+
+        Vein vein = new Vein(session, origin.getWorld(), group, tool.getType(), rules, maxBlocks - 1);
+        vein.seen.add(pack(origin.getX(), origin.getY(), origin.getZ()));
+        expand(vein, origin);
+        if (vein.tail == 0) {
+            // A single block, nothing to spread over ticks
+            return false;
+        }
+
+        for (ItemStack drop : drops) {
+            vein.drops.add(drop);
+        }
+        vein.exp = exp;
+
+        if (id >= veinsBySession.length) {
+            veinsBySession = Arrays.copyOf(veinsBySession, Math.max(id + 1, veinsBySession.length * 2));
+        }
+        veinsBySession[id] = vein;
+        veins.add(vein);
+        veinsStarted++;
+        return true;
+    }
+
+    /**
+     * Whether a block break event is fired by the vein miner itself. The drops
+     * of such events belong to the vein, see {@link #collect}.
+     */
+    public boolean isBreaking() {
+        return breaking != null;
+    }
+
+    /**
+     * Add the drops of a block broken by the vein miner to its vein.
+     */
+    public void collect(Collection<ItemStack> drops, int exp) {
+        for (ItemStack drop : drops) {
+            breaking.drops.add(drop);
+        }
+        breaking.exp += exp;
+    }
+
+    /**
+     * Break the next blocks of the active veins, up to the per-tick budget
+     * (smaller under load). Called every tick.
+     */
+    public void tick() {
+        if (veins.isEmpty()) {
+            return;
+        }
+
+        int budget = Math.max(1, blocksPerTick / plugin.getLoadManager().getTier().getIntervalMultiplier());
+        while (budget > 0 && !veins.isEmpty()) {
+            if (cursor >= veins.size()) {
+                cursor = 0;
+            }
+            Vein vein = veins.get(cursor);
+            if (step(vein)) {
+                budget--;
+            }
+            if (vein.head < vein.tail && canContinue(vein)) {
+                cursor++;
+            } else {
+                finish(vein);
+            }
+        }
+    }
+
+    /**
+     * Finish a player's vein right away, delivering what was broken so far
+     * (used on quit).
+     */
+    public void cancel(PlayerSession session) {
+        int id = session.getId();
+        if (id < veinsBySession.length && veinsBySession[id] != null && veinsBySession[id].session == session) {
+            finish(veinsBySession[id]);
+        }
+    }
+
+    /**
+     * Finish every vein right away (used on disable).
+     */
+    public void cancelAll() {
+        while (!veins.isEmpty()) {
+            finish(veins.get(veins.size() - 1));
+        }
+    }
+
+    /**
+     * Break the next queued block of a vein.
+     *
+     * @return true if a block was broken
+     */
+    private boolean step(Vein vein) {
+        long pos = vein.queue[vein.head++];
+        Block block = vein.world.getBlockAt(unpackX(pos), unpackY(pos), unpackZ(pos));
+        // The block may have changed since it was queued
+        if (groups[block.getType().ordinal()] != vein.group) {
+            return false;
+        }
+
+        boolean broken;
+        breaking = vein;
+        try {
+            broken = vein.session.getPlayer().breakBlock(block);
+        } finally {
+            breaking = null;
+        }
+        if (!broken) {
+            // Protected or cancelled - don't spread through it
+            return false;
+        }
+        blocksBroken++;
+        expand(vein, block);
+        return true;
+    }
+
+    private boolean canContinue(Vein vein) {
+        Player player = vein.session.getPlayer();
+        // Stop when the player left, changed worlds, or the tool broke or was put away
+        return player.isOnline() && player.getWorld().equals(vein.world)
+                && player.getInventory().getItemInMainHand().getType() == vein.tool;
+    }
+
+    /**
+     * Queue the unseen neighbours (including diagonals) of a block that belong to the vein.
+     */
+    private void expand(Vein vein, Block block) {
+        World world = vein.world;
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (vein.tail == vein.queue.length) {
+                        return;
+                    }
+                    int x = block.getX() + dx;
+                    int y = block.getY() + dy;
+                    int z = block.getZ() + dz;
+                    if (y < minY || y >= maxY || !world.isChunkLoaded(x >> 4, z >> 4)) {
+                        continue;
+                    }
+                    long pos = pack(x, y, z);
+                    if (!vein.seen.add(pos)) {
+                        continue;
+                    }
+                    if (groups[world.getBlockAt(x, y, z).getType().ordinal()] == vein.group) {
+                        vein.queue[vein.tail++] = pos;
+                    }
+                }
+            }
+        }
+    }
+
+    private void finish(Vein vein) {
+        int index = veins.indexOf(vein);
+        veins.remove(index);
+        if (index < cursor) {
+            cursor--;
+        }
+        veinsBySession[vein.session.getId()] = null;
+
+        // The whole vein is converted, smelted and inserted as one batch
+        if (!vein.drops.isEmpty()) {
+            plugin.getPickupPipeline().submit(vein.session, vein.drops.drain(), vein.rules);
+        }
+        plugin.getExperienceManager().add(vein.session, vein.exp);
+    }
+
+    private static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static int unpackX(long pos) {
+        return (int) (pos >> 38);
+    }
+
+    private static int unpackY(long pos) {
+        return (int) (pos << 52 >> 52);
+    }
+
+    private static int unpackZ(long pos) {
+        return (int) (pos << 26 >> 38);
+    }
+
+    // ===== Statistics =====
+
+    public int getActiveVeins() {
+        return veins.size();
+    }
+
+    public long getVeinsStarted() {
+        return veinsStarted;
+    }
+
+    public long getBlocksBroken() {
+        return blocksBroken;
+    }
+}
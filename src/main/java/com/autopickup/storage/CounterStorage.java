@@ -0,0 +1,232 @@
+package com.autopickup.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+
+/**
+ * Persists per-material counters (converter accumulators, overflow vaults) in
+ * one small binary file per player.
+ * <p>
+ * Format: magic byte, version byte, varint entry count, then per entry a varint
+ * palette id and a varlong amount - two to a few bytes per non-zero counter.
+ * Players without counters have no file at all. All file access happens on the
+ * IO executor; the methods themselves are called from the main thread.
+ * <p>
+ * A file that cannot be read is never overwritten: loading fails, and an
+ * unreadable (corrupt or unknown format) file is moved aside so it can be
+ * recovered by hand. Callers keep such players in merge mode.
+ */
+public class CounterStorage {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final byte magic;
+    // What is stored, for log messages
+    private final String kind;
+    private final ExecutorService executor;
+    private final Logger logger;
+    private final MaterialPalette palette;
+
+    public CounterStorage(Path directory, char magic, String kind, ExecutorService executor, Logger logger) {
+        this.directory = directory;
+        this.magic = (byte) magic;
+        this.kind = kind;
+        this.executor = executor;
+        this.logger = logger;
+        this.palette = new MaterialPalette(directory.resolve("palette.txt"));
+        try {
+            palette.load();
+        } catch (IOException e) {
+            logger.severe("Could not load " + kind + " palette: " + e.getMessage());
+        }
+    }
+
+    public MaterialPalette getPalette() {
+        return palette;
+    }
+
+    /**
+     * Stored counters of one player, as parallel palette id / amount arrays.
+     */
+    public record Entries(int[] ids, long[] amounts, int size) {
+        static final Entries EMPTY = new Entries(new int[0], new long[0], 0);
+    }
+
+    /**
+     * Thrown for a file that was moved aside because it could not be parsed.
+     */
+    private static class CorruptFileException extends IOException {
+        CorruptFileException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Load a player's counters on the IO executor. Completes exceptionally if
+     * the stored file could not be read; the caller must then only
+     * {@link #merge} for that player.
+     */
+    public CompletableFuture<Entries> load(UUID uuid) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return read(uuid);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Replace a player's stored counters. The arrays must not be modified afterwards.
+     */
+    public void save(UUID uuid, int[] ids, long[] amounts, int size) {
+        flushPalette();
+        executor.execute(() -> {
+            try {
+                write(uuid, ids, amounts, size);
+            } catch (IOException e) {
+                logger.severe("Could not save " + kind + " of " + uuid + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Add amounts on top of what is stored for a player. Used when a player's
+     * stored counters were not (or could not be) loaded.
+     */
+    public void merge(UUID uuid, int[] ids, long[] amounts, int size) {
+        flushPalette();
+        executor.execute(() -> {
+            Entries stored;
+            try {
+                stored = read(uuid);
+            } catch (CorruptFileException e) {
+                // The bad file is kept aside, start a new one
+                stored = Entries.EMPTY;
+            } catch (IOException e) {
+                logger.severe("Could not save " + kind + " of " + uuid + ", stored file unreadable: " + e.getMessage());
+                return;
+            }
+
+            int[] mergedIds = Arrays.copyOf(stored.ids(), stored.size() + size);
+            long[] mergedAmounts = Arrays.copyOf(stored.amounts(), stored.size() + size);
+            int mergedSize = stored.size();
+            for (int i = 0; i < size; i++) {
+                int existing = indexOf(mergedIds, mergedSize, ids[i]);
+                if (existing >= 0) {
+                    mergedAmounts[existing] += amounts[i];
+                } else {
+                    mergedIds[mergedSize] = ids[i];
+                    mergedAmounts[mergedSize++] = amounts[i];
+                }
+            }
+            try {
+                write(uuid, mergedIds, mergedAmounts, mergedSize);
+            } catch (IOException e) {
+                logger.severe("Could not save " + kind + " of " + uuid + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private static int indexOf(int[] ids, int size, int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Queue a palette write if ids were added, ahead of any file that uses them.
+     */
+    private void flushPalette() {
+        if (!palette.isDirty()) {
+            return;
+        }
+        byte[] data = palette.encode();
+        executor.execute(() -> {
+            try {
+                AtomicFiles.write(palette.getFile(), data);
+            } catch (IOException e) {
+                logger.severe("Could not save " + kind + " palette: " + e.getMessage());
+            }
+        });
+    }
+
+    // ===== IO thread =====
+
+    private Path fileOf(UUID uuid) {
+        String name = uuid.toString();
+        // Shard by the first two hex digits to keep directories small
+        return directory.resolve(name.substring(0, 2)).resolve(name + ".bin");
+    }
+
+    private Entries read(UUID uuid) throws IOException {
+        Path file = fileOf(uuid);
+        if (!Files.exists(file)) {
+            return Entries.EMPTY;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (in.get() != magic || in.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("unknown format");
+            }
+            int size = VarInts.readVarInt(in);
+            if (size < 0 || size > in.remaining() / 2) {
+                throw new IllegalArgumentException("bad entry count " + size);
+            }
+            int[] ids = new int[size];
+            long[] amounts = new long[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = VarInts.readVarInt(in);
+                amounts[i] = VarInts.readVarLong(in);
+            }
+            return new Entries(ids, amounts, size);
+        } catch (RuntimeException e) {
+            Path aside = file.resolveSibling(file.getFileName() + ".bad-" + System.currentTimeMillis());
+            Files.move(file, aside);
+            logger.warning("Moved unreadable " + kind + " file to " + aside + ": " + e.getMessage());
+            throw new CorruptFileException("unreadable " + kind + " file, moved to " + aside, e);
+        }
+    }
+
+    private void write(UUID uuid, int[] ids, long[] amounts, int size) throws IOException {
+        Path file = fileOf(uuid);
+        int nonZero = 0;
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] > 0) {
+                nonZero++;
+            }
+        }
+
+        // Nothing stored - no file
+        if (nonZero == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(3 + nonZero * 4);
+        out.write(magic);
+        out.write(FORMAT_VERSION);
+        VarInts.writeVarInt(out, nonZero);
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] > 0) {
+                VarInts.writeVarInt(out, ids[i]);
+                VarInts.writeVarLong(out, amounts[i]);
+            }
+        }
+        AtomicFiles.write(file, out.toByteArray());
+    }
+}
@@ -0,0 +1,454 @@
+package com.autopickup.storage;
+
+import org.bukkit.Material;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped file of fixed-width player records, addressed through a
+ * UUID to slot index that is rebuilt by scanning the file on open.
+ * <p>
+ * Every record holds two checksummed copies with a sequence number. A write
+ * goes to the older copy, so a torn write can only damage one of them and the
+ * other is used when loading. Writes are in-place puts into the mapping; the
+ * mapping is forced to disk at most every sync interval and on close.
+ * <p>
+ * Copy layout (256 bytes): UUID (16), sequence (4), flags (4), junk filter as up
+ * to 28 material name hashes (112), materials excluded from auto smelt as up to
+ * 28 name hashes (112), reserved (4), CRC32 of the first 252 bytes (4).
+ * Files of format 1 (64 byte copies without the filter) are converted on open.
+ */
+public class MappedPlayerDataStore implements PlayerDataStore {
+
+    private static final int MAGIC = 0x41504453; // "APDS"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int COPY_SIZE = 256;
+    private static final int RECORD_SIZE = COPY_SIZE * 2;
+    private static final int CHECKSUM_OFFSET = COPY_SIZE - 4;
+    private static final int FILTER_OFFSET = 24;
+    private static final int FILTER_SLOTS = 28;
+    private static final int SMELT_SKIP_OFFSET = FILTER_OFFSET + FILTER_SLOTS * 4;
+    private static final int SMELT_SKIP_SLOTS = 28;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int V1_COPY_SIZE = 64;
+    private static final int V1_RECORD_SIZE = V1_COPY_SIZE * 2;
+
+    // Material names by String.hashCode(), to read the stored filter hashes back
+    private static final class MaterialHashes {
+        static final Map<Integer, String> NAMES = new HashMap<>();
+        // Two material names with the same hash, if this server version has any
+        static String collision = null;
+
+        static {
+            for (Material material : Material.values()) {
+                if (!material.isLegacy()) {
+                    String other = NAMES.putIfAbsent(material.name().hashCode(), material.name());
+                    if (other != null && collision == null) {
+                        collision = other + " and " + material.name();
+                    }
+                }
+            }
+        }
+    }
+
+    private final File file;
+    private final Logger logger;
+    private final long syncIntervalMillis;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int usedSlots;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private boolean unsynced = false;
+    private long lastSync = System.currentTimeMillis();
+
+    public MappedPlayerDataStore(File file, Logger logger, long syncIntervalMillis) {
+        this.file = file;
+        this.logger = logger;
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "mmap";
+    }
+
+    /**
+     * Filter and smelt exclusion entries a record has room for.
+     */
+    @Override
+    public int getMaxMaterials() {
+        return Math.min(FILTER_SLOTS, SMELT_SKIP_SLOTS);
+    }
+
+    @Override
+    public void open() throws IOException {
+        // Materials are stored by name hash, which must tell every material apart
+        if (MaterialHashes.collision != null) {
+            throw new IOException("materials " + MaterialHashes.collision
+                    + " have the same name hash on this server version, use another storage type");
+        }
+        file.getParentFile().mkdirs();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = channel.size();
+        if (size == 0) {
+            create();
+            return;
+        }
+        if (size < HEADER_SIZE) {
+            // Not even a header - keep it for inspection rather than overwriting it
+            moveAside("truncated to " + size + " bytes");
+            create();
+            return;
+        }
+
+        ByteBuffer header = read(HEADER_SIZE);
+        if (header.getInt(0) == MAGIC && header.getInt(4) == 1 && header.getInt(8) == V1_RECORD_SIZE) {
+            convertFromV1(size);
+            return;
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION || header.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Unknown player data file format: " + file.getName());
+        }
+        map((int) ((size - HEADER_SIZE) / RECORD_SIZE));
+        scan();
+    }
+
+    private void moveAside(String reason) throws IOException {
+        channel.close();
+        Path aside = file.toPath().resolveSibling(file.getName() + ".bad-" + System.currentTimeMillis());
+        Files.move(file.toPath(), aside);
+        logger.severe("Player data file " + reason + ", moved to " + aside.getFileName() + " and starting a new one");
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    private void create() throws IOException {
+        map(INITIAL_CAPACITY);
+        writeHeader(buffer);
+        buffer.force();
+    }
+
+    private static void writeHeader(ByteBuffer target) {
+        target.putInt(0, MAGIC);
+        target.putInt(4, FORMAT_VERSION);
+        target.putInt(8, RECORD_SIZE);
+    }
+
+    /**
+     * Rewrite a format 1 file in the current layout. The old records (the
+     * newest valid copy of each) are converted into a new file in memory, which
+     * replaces the old one through {@link AtomicFiles}, so a crash during the
+     * conversion leaves the old file as it was.
+     */
+    private void convertFromV1(long size) throws IOException {
+        ByteBuffer old = read((int) size);
+        List<PlayerRecord> records = new ArrayList<>();
+        for (int record = HEADER_SIZE; record + V1_RECORD_SIZE <= size; record += V1_RECORD_SIZE) {
+            int newest = -1;
+            for (int copy = record; copy < record + V1_RECORD_SIZE; copy += V1_COPY_SIZE) {
+                boolean valid = old.getInt(copy + V1_COPY_SIZE - 4) == checksum(old, copy, V1_COPY_SIZE - 4);
+                if (valid && (newest < 0 || old.getInt(copy + 16) - old.getInt(newest + 16) > 0)) {
+                    newest = copy;
+                }
+            }
+            if (newest >= 0) {
+                records.add(new PlayerRecord(new UUID(old.getLong(newest), old.getLong(newest + 8)), old.getInt(newest + 20)));
+            }
+        }
+
+        int newCapacity = Math.max(INITIAL_CAPACITY, records.size());
+        ByteBuffer converted = ByteBuffer.allocate(HEADER_SIZE + newCapacity * RECORD_SIZE);
+        writeHeader(converted);
+        for (int slot = 0; slot < records.size(); slot++) {
+            writeCopy(converted, recordOffset(slot), records.get(slot), 0);
+        }
+
+        channel.close();
+        AtomicFiles.write(file.toPath(), converted.array());
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(newCapacity);
+        scan();
+        logger.info("Converted " + records.size() + " player data record(s) to the current file format");
+    }
+
+    private ByteBuffer read(int length) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(length);
+        while (data.hasRemaining() && channel.read(data, data.position()) >= 0) {
+            // Keep reading until the buffer is full or the file ends
+        }
+        return data;
+    }
+
+    /**
+     * Rebuild the slot index, recovering records whose newest copy is damaged.
+     * Deleted and unrecoverable slots below the last used one are reused
+     * before the file grows.
+     */
+    private void scan() {
+        int recovered = 0;
+        int lost = 0;
+        usedSlots = 0;
+        slots.clear();
+        freeSlots.clear();
+        List<Integer> gaps = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            int record = recordOffset(slot);
+            boolean firstValid = isValid(record);
+            boolean secondValid = isValid(record + COPY_SIZE);
+
+            if (!firstValid && !secondValid) {
+                // Deleted or never used slots are all zeroes; anything else is damaged
+                if (!isEmpty(record) || !isEmpty(record + COPY_SIZE)) {
+                    lost++;
+                    clearSlot(slot);
+                }
+                gaps.add(slot);
+                continue;
+            }
+
+            int copy = newestValidCopy(record, firstValid, secondValid);
+            if (firstValid != secondValid && !isEmpty(firstValid ? record + COPY_SIZE : record)) {
+                recovered++;
+            }
+            slots.put(new UUID(buffer.getLong(copy), buffer.getLong(copy + 8)), slot);
+            usedSlots = slot + 1;
+        }
+
+        // Slots from usedSlots on are handed out in order anyway
+        for (int slot : gaps) {
+            if (slot >= usedSlots) {
+                break;
+            }
+            freeSlots.add(slot);
+        }
+
+        if (recovered > 0) {
+            logger.warning("Recovered " + recovered + " damaged player data record(s) from their backup copy");
+        }
+        if (lost > 0) {
+            logger.severe("Dropped " + lost + " unrecoverable player data record(s) - those players get default settings");
+        }
+    }
+
+    @Override
+    public PlayerRecord load(UUID uuid) {
+        Integer slot = slots.get(uuid);
+        if (slot == null) {
+            return null;
+        }
+        int record = recordOffset(slot);
+        int copy = newestValidCopy(record, isValid(record), isValid(record + COPY_SIZE));
+        return new PlayerRecord(uuid, buffer.getInt(copy + 20),
+                readNames(copy + FILTER_OFFSET, FILTER_SLOTS), readNames(copy + SMELT_SKIP_OFFSET, SMELT_SKIP_SLOTS));
+    }
+
+    private List<String> readNames(int offset, int slots) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            int hash = buffer.getInt(offset + i * 4);
+            // Names of materials this server version doesn't have are dropped
+            String name = hash != 0 ? MaterialHashes.NAMES.get(hash) : null;
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static void writeNames(ByteBuffer target, int offset, int slots, List<String> names) {
+        for (int i = 0; i < slots; i++) {
+            target.putInt(offset + i * 4, i < names.size() ? names.get(i).hashCode() : 0);
+        }
+    }
+
+    @Override
+    public void saveBatch(List<PlayerRecord> records) throws IOException {
+        for (PlayerRecord record : records) {
+            write(record);
+        }
+        unsynced = true;
+        maybeSync();
+    }
+
+    private void write(PlayerRecord record) throws IOException {
+        UUID uuid = record.uuid();
+        Integer slot = slots.get(uuid);
+        if (slot == null) {
+            slot = allocateSlot();
+            slots.put(uuid, slot);
+        }
+
+        int offset = recordOffset(slot);
+        boolean firstValid = isValid(offset);
+        boolean secondValid = isValid(offset + COPY_SIZE);
+        int sequence = 0;
+        int target = offset;
+        if (firstValid || secondValid) {
+            int newest = newestValidCopy(offset, firstValid, secondValid);
+            sequence = buffer.getInt(newest + 16) + 1;
+            // Overwrite the other copy so the newest one survives a torn write
+            target = newest == offset ? offset + COPY_SIZE : offset;
+        }
+
+        writeCopy(buffer, target, record, sequence);
+    }
+
+    private void writeCopy(ByteBuffer target, int copy, PlayerRecord record, int sequence) {
+        UUID uuid = record.uuid();
+        target.putLong(copy, uuid.getMostSignificantBits());
+        target.putLong(copy + 8, uuid.getLeastSignificantBits());
+        target.putInt(copy + 16, sequence);
+        target.putInt(copy + 20, record.flags());
+        writeNames(target, copy + FILTER_OFFSET, FILTER_SLOTS, record.filter());
+        writeNames(target, copy + SMELT_SKIP_OFFSET, SMELT_SKIP_SLOTS, record.smeltSkip());
+        target.putInt(copy + CHECKSUM_OFFSET, checksum(target, copy, CHECKSUM_OFFSET));
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        Integer slot = slots.remove(uuid);
+        if (slot != null) {
+            clearSlot(slot);
+            freeSlots.add(slot);
+            unsynced = true;
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<PlayerRecord> action) {
+        for (UUID uuid : slots.keySet()) {
+            action.accept(load(uuid));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.warning("Could not close " + file.getName() + ": " + e.getMessage());
+        }
+        channel = null;
+        slots.clear();
+        freeSlots.clear();
+    }
+
+    @Override
+    public boolean isUnsynced() {
+        return unsynced;
+    }
+
+    /**
+     * Force written pages to disk now. Called one sync interval after a batch
+     * left pages unsynced, so the last writes don't wait for the next batch.
+     */
+    @Override
+    public void sync() {
+        if (unsynced) {
+            buffer.force();
+            unsynced = false;
+            lastSync = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Force written pages to disk if the sync interval has passed.
+     */
+    private void maybeSync() {
+        long now = System.currentTimeMillis();
+        if (unsynced && now - lastSync >= syncIntervalMillis) {
+            buffer.force();
+            unsynced = false;
+            lastSync = now;
+        }
+    }
+
+    // ===== Layout helpers =====
+
+    private void map(int newCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+        capacity = newCapacity;
+    }
+
+    private int allocateSlot() throws IOException {
+        Integer free = freeSlots.poll();
+        if (free != null) {
+            return free;
+        }
+        if (usedSlots == capacity) {
+            buffer.force();
+            // A file cut short after its header maps no slots at all
+            map(Math.max(INITIAL_CAPACITY, capacity * 2));
+        }
+        return usedSlots++;
+    }
+
+    private static int recordOffset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private int checksum(ByteBuffer source, int copy, int length) {
+        crc.reset();
+        for (int i = 0; i < length; i++) {
+            crc.update(source.get(copy + i));
+        }
+        return (int) crc.getValue();
+    }
+
+    private boolean isValid(int copy) {
+        return !isEmpty(copy) && buffer.getInt(copy + CHECKSUM_OFFSET) == checksum(buffer, copy, CHECKSUM_OFFSET);
+    }
+
+    private boolean isEmpty(int copy) {
+        for (int i = 0; i < COPY_SIZE; i += 8) {
+            if (buffer.getLong(copy + i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int newestValidCopy(int record, boolean firstValid, boolean secondValid) {
+        if (firstValid && secondValid) {
+            return buffer.getInt(record + 16) - buffer.getInt(record + COPY_SIZE + 16) >= 0 ? record : record + COPY_SIZE;
+        }
+        return firstValid ? record : record + COPY_SIZE;
+    }
+
+    private void clearSlot(int slot) {
+        int record = recordOffset(slot);
+        for (int i = 0; i < RECORD_SIZE; i += 8) {
+            buffer.putLong(record + i, 0);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.autopickup.storage;
+
+import org.bukkit.Material;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only mapping between small integer ids and material names, so the
+ * binary formats can store a material in one or two bytes and still survive
+ * server updates that reorder the Material enum. Only used from the main thread.
+ */
+public class MaterialPalette {
+
+    private final Path file;
+    private final List<String> names = new ArrayList<>();
+    private final List<Material> materials = new ArrayList<>();
+    private final int[] idByOrdinal = new int[Material.values().length];
+    private boolean dirty = false;
+
+    public MaterialPalette(Path file) {
+        this.file = file;
+        Arrays.fill(idByOrdinal, -1);
+    }
+
+    public void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String name = line.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            // Unknown names (removed materials) keep their id so later ids stay stable
+            Material material = Material.getMaterial(name);
+            int id = names.size();
+            names.add(name);
+            materials.add(material);
+            if (material != null && idByOrdinal[material.ordinal()] < 0) {
+                idByOrdinal[material.ordinal()] = id;
+            }
+        }
+    }
+
+    /**
+     * Get the id of a material, assigning a new one if needed.
+     */
+    public int idOf(Material material) {
+        int id = idByOrdinal[material.ordinal()];
+        if (id < 0) {
+            id = names.size();
+            names.add(material.name());
+            materials.add(material);
+            idByOrdinal[material.ordinal()] = id;
+            dirty = true;
+        }
+        return id;
+    }
+
+    /**
+     * Get the material for an id, or null if it is unknown on this server version.
+     */
+    public Material get(int id) {
+        return id >= 0 && id < materials.size() ? materials.get(id) : null;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Serialize the palette and clear the dirty flag. The bytes can be written from any thread.
+     */
+    public byte[] encode() {
+        dirty = false;
+        return String.join("\n", names).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+package com.autopickup.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies every record from one player data store into another, in batches.
+ * Runs on the IO thread.
+ */
+public class PlayerDataImporter {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Import all records of the source into the target.
+     * @return the number of records copied
+     */
+    public static int importAll(PlayerDataStore source, PlayerDataStore target) throws Exception {
+        List<PlayerRecord> records = new ArrayList<>();
+        source.forEach(records::add);
+
+        for (int start = 0; start < records.size(); start += BATCH_SIZE) {
+            target.saveBatch(records.subList(start, Math.min(records.size(), start + BATCH_SIZE)));
+        }
+        return records.size();
+    }
+}
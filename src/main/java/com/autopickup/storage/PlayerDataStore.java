@@ -0,0 +1,68 @@
+package com.autopickup.storage;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Storage backend for player settings. All methods are called from the IO
+ * thread only, one at a time, so implementations need no locking.
+ */
+public interface PlayerDataStore {
+
+    /**
+     * Name of the backend as used in the config.
+     */
+    String getName();
+
+    /**
+     * Most materials a player's junk filter or smelt exclusions can hold in
+     * this backend.
+     */
+    default int getMaxMaterials() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Open the backend, creating files or tables as needed.
+     */
+    void open() throws Exception;
+
+    /**
+     * Load one player's record, or null if nothing is stored for them.
+     */
+    PlayerRecord load(UUID uuid) throws Exception;
+
+    /**
+     * Insert or replace a batch of records.
+     */
+    void saveBatch(List<PlayerRecord> records) throws Exception;
+
+    /**
+     * Remove a player's record.
+     */
+    void delete(UUID uuid) throws Exception;
+
+    /**
+     * Visit every stored record.
+     */
+    void forEach(Consumer<PlayerRecord> action) throws Exception;
+
+    /**
+     * Whether written records are still waiting to be forced to disk by {@link #sync}.
+     */
+    default boolean isUnsynced() {
+        return false;
+    }
+
+    /**
+     * Force written records to disk. Backends that write through need not do anything.
+     */
+    default void sync() throws Exception {
+    }
+
+    /**
+     * Flush and release resources.
+     */
+    void close() throws Exception;
+}
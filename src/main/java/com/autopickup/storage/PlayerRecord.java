@@ -0,0 +1,17 @@
+package com.autopickup.storage;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stored settings of one player as exchanged with a {@link PlayerDataStore}.
+ * Settings are bit flags, see {@code PlayerDataManager.PlayerData}; the junk
+ * filter and the materials excluded from auto smelt are lists of material
+ * names, so they survive Material enum reorders.
+ */
+public record PlayerRecord(UUID uuid, int flags, List<String> filter, List<String> smeltSkip) {
+
+    public PlayerRecord(UUID uuid, int flags) {
+        this(uuid, flags, List.of(), List.of());
+    }
+}
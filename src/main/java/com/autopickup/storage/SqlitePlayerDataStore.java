@@ -0,0 +1,145 @@
+package com.autopickup.storage;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Embedded SQLite database in the plugin folder. Every batch is one transaction
+ * of upserts, so a toggle costs one row write instead of a file rewrite.
+ * Uses the SQLite JDBC driver bundled with the server.
+ */
+public class SqlitePlayerDataStore implements PlayerDataStore {
+
+    private static final String UPSERT = "INSERT INTO player_data (uuid, flags, filter, smelt_skip) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT(uuid) DO UPDATE SET flags = excluded.flags, filter = excluded.filter, "
+            + "smelt_skip = excluded.smelt_skip";
+
+    private final File file;
+    private Connection connection;
+
+    public SqlitePlayerDataStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Whether the SQLite driver is available on this server.
+     */
+    public static boolean isAvailable() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    @Override
+    public void open() throws SQLException {
+        file.getParentFile().mkdirs();
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("CREATE TABLE IF NOT EXISTS player_data ("
+                    + "uuid TEXT PRIMARY KEY NOT NULL, "
+                    + "flags INTEGER NOT NULL, "
+                    + "filter TEXT NOT NULL DEFAULT '', "
+                    + "smelt_skip TEXT NOT NULL DEFAULT '')");
+        }
+        addListColumn("filter");
+        addListColumn("smelt_skip");
+    }
+
+    /**
+     * Add a material list column missing from databases created by older versions.
+     */
+    private void addListColumn(String name) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("PRAGMA table_info(player_data)")) {
+            while (result.next()) {
+                if (result.getString("name").equals(name)) {
+                    return;
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE player_data ADD COLUMN " + name + " TEXT NOT NULL DEFAULT ''");
+        }
+    }
+
+    @Override
+    public PlayerRecord load(UUID uuid) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT flags, filter, smelt_skip FROM player_data WHERE uuid = ?")) {
+            statement.setString(1, uuid.toString());
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? new PlayerRecord(uuid, result.getInt(1), split(result.getString(2)),
+                        split(result.getString(3))) : null;
+            }
+        }
+    }
+
+    @Override
+    public void saveBatch(List<PlayerRecord> records) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+            for (PlayerRecord record : records) {
+                statement.setString(1, record.uuid().toString());
+                statement.setInt(2, record.flags());
+                statement.setString(3, String.join(",", record.filter()));
+                statement.setString(4, String.join(",", record.smeltSkip()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Override
+    public void delete(UUID uuid) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM player_data WHERE uuid = ?")) {
+            statement.setString(1, uuid.toString());
+            statement.executeUpdate();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<PlayerRecord> action) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT uuid, flags, filter, smelt_skip FROM player_data")) {
+            while (result.next()) {
+                action.accept(new PlayerRecord(UUID.fromString(result.getString(1)), result.getInt(2),
+                        split(result.getString(3)), split(result.getString(4))));
+            }
+        }
+    }
+
+    private static List<String> split(String names) {
+        return names == null || names.isEmpty() ? List.of() : List.of(names.split(","));
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.autopickup.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Utility class for variable-length integer encoding (7 bits per byte, LEB128 style)
+ * used by the compact binary storage formats.
+ */
+public class VarInts {
+
+    public static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    public static void writeVarInt(ByteArrayOutputStream out, int value) {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    public static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (!in.hasRemaining()) {
+                throw new BufferUnderflowException();
+            }
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalArgumentException("VarLong too long");
+            }
+        }
+    }
+
+    public static int readVarInt(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+}
@@ -0,0 +1,123 @@
+package com.autopickup.storage;
+
+import com.autopickup.managers.PlayerDataManager.PlayerData;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * The original playerdata.yml format. The whole document is parsed on first
+ * use and rewritten on every batch, so it is best suited to small servers.
+ */
+public class YamlPlayerDataStore implements PlayerDataStore {
+
+    // Settings keys and the flag each one maps to
+    private static final String[] KEYS = {"auto-pickup", "auto-smelt", "mob-drops", "fishing", "vein-miner", "magnet",
+            "auto-replant", "filter-drop"};
+    private static final int[] FLAGS = {PlayerData.FLAG_AUTO_PICKUP, PlayerData.FLAG_AUTO_SMELT,
+            PlayerData.FLAG_MOB_DROPS, PlayerData.FLAG_FISHING, PlayerData.FLAG_VEIN_MINER,
+            PlayerData.FLAG_MAGNET, PlayerData.FLAG_AUTO_REPLANT, PlayerData.FLAG_FILTER_DROP};
+
+    private final File file;
+    private final Logger logger;
+    private FileConfiguration config;
+
+    public YamlPlayerDataStore(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    @Override
+    public String getName() {
+        return "yaml";
+    }
+
+    @Override
+    public void open() {
+        // Parsed lazily on first access
+        config = null;
+    }
+
+    private FileConfiguration config() {
+        if (config == null) {
+            config = file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
+        }
+        return config;
+    }
+
+    @Override
+    public PlayerRecord load(UUID uuid) {
+        ConfigurationSection section = config().getConfigurationSection("players." + uuid);
+        return section != null ? readRecord(uuid, section) : null;
+    }
+
+    @Override
+    public void saveBatch(List<PlayerRecord> records) throws Exception {
+        FileConfiguration data = config();
+        for (PlayerRecord record : records) {
+            String path = "players." + record.uuid();
+            for (int i = 0; i < KEYS.length; i++) {
+                data.set(path + "." + KEYS[i], (record.flags() & FLAGS[i]) != 0);
+            }
+            data.set(path + ".filter", record.filter().isEmpty() ? null : record.filter());
+            data.set(path + ".smelt-skip", record.smeltSkip().isEmpty() ? null : record.smeltSkip());
+        }
+        write();
+    }
+
+    @Override
+    public void delete(UUID uuid) throws Exception {
+        config().set("players." + uuid, null);
+        write();
+    }
+
+    @Override
+    public void forEach(Consumer<PlayerRecord> action) {
+        ConfigurationSection players = config().getConfigurationSection("players");
+        if (players == null) {
+            return;
+        }
+        for (String key : players.getKeys(false)) {
+            try {
+                UUID uuid = UUID.fromString(key);
+                action.accept(readRecord(uuid, players.getConfigurationSection(key)));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid UUID in " + file.getName() + ": " + key);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        config = null;
+    }
+
+    private PlayerRecord readRecord(UUID uuid, ConfigurationSection section) {
+        List<String> filter = section != null ? section.getStringList("filter") : List.of();
+        List<String> smeltSkip = section != null ? section.getStringList("smelt-skip") : List.of();
+        return new PlayerRecord(uuid, readFlags(section), filter, smeltSkip);
+    }
+
+    private int readFlags(ConfigurationSection section) {
+        int flags = 0;
+        for (int i = 0; i < KEYS.length; i++) {
+            boolean defaultValue = (PlayerData.DEFAULT_FLAGS & FLAGS[i]) != 0;
+            boolean value = section != null ? section.getBoolean(KEYS[i], defaultValue) : defaultValue;
+            if (value) {
+                flags |= FLAGS[i];
+            }
+        }
+        return flags;
+    }
+
+    private void write() throws Exception {
+        AtomicFiles.write(file.toPath(), config().saveToString().getBytes(StandardCharsets.UTF_8));
+    }
+}
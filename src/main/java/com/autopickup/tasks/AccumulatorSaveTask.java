@@ -0,0 +1,41 @@
+package com.autopickup.tasks;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Periodic task that writes changed converter accumulators and overflow vaults
+ * to disk, so a crash loses at most one interval of progress.
+ */
+public class AccumulatorSaveTask extends BukkitRunnable {
+
+    private final AutoPickupPlugin plugin;
+    private int skippedRuns = 0;
+
+    public AccumulatorSaveTask(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        // Under load the interval is stretched by skipping runs
+        if (++skippedRuns < plugin.getLoadManager().getTier().getIntervalMultiplier()) {
+            return;
+        }
+        skippedRuns = 0;
+
+        plugin.getConverterManager().saveDirtyAccumulators();
+        plugin.getVaultManager().saveDirty();
+    }
+
+    /**
+     * Start the periodic task.
+     */
+    public void start() {
+        // Get interval from config (in seconds), default to 30 seconds
+        int intervalSeconds = Math.max(1, plugin.getConfig().getInt("ore-converter.accumulator-save-interval", 30));
+        int intervalTicks = intervalSeconds * 20;
+
+        this.runTaskTimer(plugin, intervalTicks, intervalTicks);
+    }
+}
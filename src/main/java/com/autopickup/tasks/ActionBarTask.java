@@ -0,0 +1,28 @@
+package com.autopickup.tasks;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Sends coalesced converter action bars once their interval has passed.
+ */
+public class ActionBarTask extends BukkitRunnable {
+
+    private final AutoPickupPlugin plugin;
+
+    public ActionBarTask(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        plugin.getActionBarManager().flush();
+    }
+
+    /**
+     * Start the task, running every tick.
+     */
+    public void start() {
+        this.runTaskTimer(plugin, 1L, 1L);
+    }
+}
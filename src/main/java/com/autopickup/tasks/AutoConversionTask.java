@@ -3,8 +3,8 @@ package com.autopickup.tasks;
 import com.autopickup.AutoPickupPlugin;
 import com.autopickup.managers.ConversionRecipe;
 import com.autopickup.managers.ConverterManager;
+import com.autopickup.managers.PlayerSession;
 import com.autopickup.utils.InventoryUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
@@ -18,6 +18,7 @@ import org.bukkit.scheduler.BukkitRunnable;
 public class AutoConversionTask extends BukkitRunnable {
 
     private final AutoPickupPlugin plugin;
+    private int skippedRuns = 0;
 
     public AutoConversionTask(AutoPickupPlugin plugin) {
         this.plugin = plugin;
@@ -25,27 +26,34 @@ public class AutoConversionTask extends BukkitRunnable {
 
     @Override
     public void run() {
+        // Under load the interval is stretched by skipping runs
+        if (++skippedRuns < plugin.getLoadManager().getTier().getIntervalMultiplier()) {
+            return;
+        }
+        skippedRuns = 0;
+
         ConverterManager cm = plugin.getConverterManager();
         
         // Process all online players
-        for (Player player : Bukkit.getOnlinePlayers()) {
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
             // Skip if player doesn't have permission
-            if (!player.hasPermission("autopickup.autoconvert")) {
+            if (!session.hasPermission(PlayerSession.PERM_AUTOCONVERT)) {
                 continue;
             }
             
-            processPlayerInventory(player, cm);
+            processPlayerInventory(session, cm);
         }
     }
 
     /**
      * Process a player's inventory and automatically convert matching items.
      */
-    private void processPlayerInventory(Player player, ConverterManager cm) {
+    private void processPlayerInventory(PlayerSession session, ConverterManager cm) {
+        Player player = session.getPlayer();
         PlayerInventory inventory = player.getInventory();
         
         // Check each recipe
-        for (ConversionRecipe recipe : cm.getRecipes()) {
+        for (ConversionRecipe recipe : cm.getSnapshot().getActiveRecipes()) {
             Material inputMaterial = recipe.getInputItem();
             int inputRequired = recipe.getInputAmount();
             
@@ -62,7 +70,8 @@ public class AutoConversionTask extends BukkitRunnable {
                     // Give output items to player (preserving NBT data from recipe)
                     ItemStack outputItem = recipe.getOutputItemStack();
                     int outputAmount = possibleConversions * recipe.getOutputAmount();
-                    InventoryUtils.giveItemsToPlayer(player, outputItem, outputAmount);
+                    plugin.getPickupPipeline().handleOverflow(session,
+                            InventoryUtils.giveItemsToPlayer(player, outputItem, outputAmount));
                 }
             }
         }
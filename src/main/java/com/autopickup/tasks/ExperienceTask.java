@@ -0,0 +1,31 @@
+package com.autopickup.tasks;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Delivers experience collected by auto-pickup once per delivery window.
+ */
+public class ExperienceTask extends BukkitRunnable {
+
+    private final AutoPickupPlugin plugin;
+
+    public ExperienceTask(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        plugin.getExperienceManager().flush();
+    }
+
+    /**
+     * Start the periodic task.
+     */
+    public void start() {
+        // Get interval from config (in ticks), default to every tick
+        int intervalTicks = Math.max(1, plugin.getConfig().getInt("experience.delivery-interval", 1));
+
+        this.runTaskTimer(plugin, intervalTicks, intervalTicks);
+    }
+}
@@ -0,0 +1,28 @@
+package com.autopickup.tasks;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Pulls ground items towards players with magnet mode.
+ */
+public class MagnetTask extends BukkitRunnable {
+
+    private final AutoPickupPlugin plugin;
+
+    public MagnetTask(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        plugin.getMagnetManager().tick();
+    }
+
+    /**
+     * Start the task, running every tick.
+     */
+    public void start() {
+        this.runTaskTimer(plugin, 1L, 1L);
+    }
+}
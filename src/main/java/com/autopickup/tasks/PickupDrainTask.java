@@ -0,0 +1,28 @@
+package com.autopickup.tasks;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Delivers drops that were deferred by the pickup admission control.
+ */
+public class PickupDrainTask extends BukkitRunnable {
+
+    private final AutoPickupPlugin plugin;
+
+    public PickupDrainTask(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        plugin.getPickupPipeline().drain();
+    }
+
+    /**
+     * Start the task, running every tick.
+     */
+    public void start() {
+        this.runTaskTimer(plugin, 1L, 1L);
+    }
+}
@@ -0,0 +1,39 @@
+package com.autopickup.tasks;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Periodic task that hands changed player settings to the background writer.
+ */
+public class PlayerDataSaveTask extends BukkitRunnable {
+
+    private final AutoPickupPlugin plugin;
+    private int skippedRuns = 0;
+
+    public PlayerDataSaveTask(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        // Under load the interval is stretched by skipping runs
+        if (++skippedRuns < plugin.getLoadManager().getTier().getIntervalMultiplier()) {
+            return;
+        }
+        skippedRuns = 0;
+
+        plugin.getPlayerDataManager().flush();
+    }
+
+    /**
+     * Start the periodic task.
+     */
+    public void start() {
+        // Get interval from config (in seconds), default to 10 seconds
+        int intervalSeconds = Math.max(1, plugin.getConfig().getInt("player-data.save-interval", 10));
+        int intervalTicks = intervalSeconds * 20;
+
+        this.runTaskTimer(plugin, intervalTicks, intervalTicks);
+    }
+}
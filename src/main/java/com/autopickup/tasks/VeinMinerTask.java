@@ -0,0 +1,28 @@
+package com.autopickup.tasks;
+
+import com.autopickup.AutoPickupPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Breaks the next blocks of active vein miner veins.
+ */
+public class VeinMinerTask extends BukkitRunnable {
+
+    private final AutoPickupPlugin plugin;
+
+    public VeinMinerTask(AutoPickupPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        plugin.getVeinMinerManager().tick();
+    }
+
+    /**
+     * Start the task, running every tick.
+     */
+    public void start() {
+        this.runTaskTimer(plugin, 1L, 1L);
+    }
+}
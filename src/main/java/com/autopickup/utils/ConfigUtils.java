@@ -1,13 +1,124 @@
 package com.autopickup.utils;
 
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 public class ConfigUtils {
 
     private static final LegacyComponentSerializer SERIALIZER = LegacyComponentSerializer.legacyAmpersand();
+    private static final Pattern PLACEHOLDER = Pattern.compile("%[A-Za-z0-9_-]+%");
+
+    // Display names of all materials, indexed by ordinal
+    private static final String[] MATERIAL_NAMES;
+
+    static {
+        Material[] materials = Material.values();
+        MATERIAL_NAMES = new String[materials.length];
+        for (Material material : materials) {
+            MATERIAL_NAMES[material.ordinal()] = buildMaterialName(material);
+        }
+    }
+
+    // Prefixed messages, parsed once per config load
+    private static Map<String, Component> messages = Map.of();
+    // The same messages split at their placeholders
+    private static Map<String, Template> templates = Map.of();
+
+    /**
+     * A parsed message flattened into styled parts. Placeholder parts have a
+     * name and take the style of the text they were found in.
+     */
+    private record Template(Component[] parts, String[] placeholders, Style[] styles) {
+
+        Component fill(String placeholder, String value) {
+            TextComponent.Builder builder = Component.text();
+            for (int i = 0; i < parts.length; i++) {
+                if (placeholders[i] == null) {
+                    builder.append(parts[i]);
+                } else if (placeholders[i].equals(placeholder)) {
+                    builder.append(Component.text(value, styles[i]));
+                } else {
+                    builder.append(Component.text(placeholders[i], styles[i]));
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Parse all configured messages. Called on enable and after every config reload.
+     */
+    public static void loadMessages(FileConfiguration config) {
+        Map<String, Component> compiled = new HashMap<>();
+        Map<String, Template> compiledTemplates = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("messages");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                if (!key.equals("prefix")) {
+                    Component message = colorize(getMessage(config, key));
+                    compiled.put(key, message);
+                    compiledTemplates.put(key, compile(message));
+                }
+            }
+        }
+        messages = compiled;
+        templates = compiledTemplates;
+    }
+
+    private static Template compile(Component message) {
+        List<Component> parts = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        List<Style> styles = new ArrayList<>();
+        flatten(message, Style.empty(), parts, placeholders, styles);
+        return new Template(parts.toArray(new Component[0]), placeholders.toArray(new String[0]),
+                styles.toArray(new Style[0]));
+    }
+
+    private static void flatten(Component component, Style parent, List<Component> parts,
+                                List<String> placeholders, List<Style> styles) {
+        // Children inherit whatever their parent sets and they don't
+        Style style = component.style().merge(parent, Style.Merge.Strategy.IF_ABSENT_ON_TARGET);
+        if (component instanceof TextComponent text) {
+            String content = text.content();
+            Matcher matcher = PLACEHOLDER.matcher(content);
+            int start = 0;
+            while (matcher.find()) {
+                if (matcher.start() > start) {
+                    addPart(Component.text(content.substring(start, matcher.start()), style), null, style,
+                            parts, placeholders, styles);
+                }
+                addPart(null, matcher.group(), style, parts, placeholders, styles);
+                start = matcher.end();
+            }
+            if (start < content.length()) {
+                addPart(Component.text(content.substring(start), style), null, style, parts, placeholders, styles);
+            }
+        } else {
+            addPart(component.children(List.of()).style(style), null, style, parts, placeholders, styles);
+        }
+        for (Component child : component.children()) {
+            flatten(child, style, parts, placeholders, styles);
+        }
+    }
+
+    private static void addPart(Component part, String placeholder, Style style, List<Component> parts,
+                                List<String> placeholders, List<Style> styles) {
+        parts.add(part);
+        placeholders.add(placeholder);
+        styles.add(style);
+    }
 
     public static Component colorize(String message) {
         return SERIALIZER.deserialize(message);
@@ -20,13 +131,22 @@ public class ConfigUtils {
     }
 
     public static Component getColoredMessage(FileConfiguration config, String path) {
-        return colorize(getMessage(config, path));
+        Component message = messages.get(path);
+        // Messages missing from the config are parsed on demand
+        return message != null ? message : colorize(getMessage(config, path));
     }
 
+    /**
+     * Get a message with a placeholder filled in. The value is inserted into the
+     * parsed message, keeping the formatting at the placeholder's position.
+     * Placeholder positions are found once when the message is loaded.
+     */
     public static Component getColoredMessageWithPlaceholder(FileConfiguration config, String path, String placeholder, String value) {
-        String message = getMessage(config, path);
-        message = message.replace(placeholder, value);
-        return colorize(message);
+        Template template = templates.get(path);
+        if (template == null) {
+            template = compile(colorize(getMessage(config, path)));
+        }
+        return template.fill(placeholder, value);
     }
 
     /**
@@ -34,6 +154,10 @@ public class ConfigUtils {
      * e.g., IRON_INGOT -> "Iron Ingot"
      */
     public static String formatMaterialName(Material material) {
+        return MATERIAL_NAMES[material.ordinal()];
+    }
+
+    private static String buildMaterialName(Material material) {
         String name = material.name().toLowerCase().replace("_", " ");
         StringBuilder result = new StringBuilder();
         boolean capitalizeNext = true;
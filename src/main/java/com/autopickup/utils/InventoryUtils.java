@@ -6,7 +6,9 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * Utility class for inventory operations.
@@ -123,27 +125,35 @@ public class InventoryUtils {
     }
 
     /**
-     * Give items to player, handling stacking and overflow deletion.
-     * Items that don't fit are deleted (not dropped on ground).
+     * Give items to player, handling stacking.
+     * Items that don't fit are returned for the caller to handle
+     * (see {@code PickupPipeline.handleOverflow}).
+     * @return the items that did not fit, empty if everything was given
      */
-    public static void giveItemsToPlayer(Player player, ItemStack baseItem, int totalAmount) {
+    public static List<ItemStack> giveItemsToPlayer(Player player, ItemStack baseItem, int totalAmount) {
         PlayerInventory inventory = player.getInventory();
+        List<ItemStack> leftovers = new ArrayList<>();
         int remaining = totalAmount;
         
         while (remaining > 0) {
             ItemStack toGive = baseItem.clone();
             int stackSize = Math.min(remaining, toGive.getMaxStackSize());
             toGive.setAmount(stackSize);
+            remaining -= stackSize;
             
             HashMap<Integer, ItemStack> leftover = inventory.addItem(toGive);
             
-            // If items couldn't fit, they are deleted (as per requirement)
+            // The inventory is full, so the rest won't fit either
             if (!leftover.isEmpty()) {
-                // Items are simply not added to the world - they're deleted
+                leftovers.addAll(leftover.values());
+                if (remaining > 0) {
+                    ItemStack rest = baseItem.clone();
+                    rest.setAmount(remaining);
+                    leftovers.add(rest);
+                }
                 break;
             }
-            
-            remaining -= stackSize;
         }
+        return leftovers;
     }
 }